@@ -0,0 +1,124 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker.benchmarks;
+
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.component.timepicker.TimePicker;
+
+/**
+ * Benchmarks for creating a {@link TimePicker} and setting its value.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimePickerBenchmark {
+
+    private static final LocalTime MILLIS_VALUE = LocalTime.of(9, 30, 15,
+            123_000_000);
+    private static final LocalTime OTHER_MILLIS_VALUE = LocalTime.of(17, 45);
+    private static final LocalTime NANOS_VALUE = LocalTime.of(9, 30, 15,
+            123_456_789);
+    private static final LocalTime OTHER_NANOS_VALUE = LocalTime.of(17, 45,
+            0, 987_654_321);
+
+    private TimePicker timePicker;
+    private boolean toggle;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        timePicker = new TimePicker();
+    }
+
+    @Benchmark
+    public TimePicker construct() {
+        return new TimePicker();
+    }
+
+    @Benchmark
+    public TimePicker constructWithValue() {
+        return new TimePicker(MILLIS_VALUE);
+    }
+
+    @Benchmark
+    public TimePicker constructWithLabel() {
+        return new TimePicker("Start time");
+    }
+
+    /**
+     * Alternates between two values that are already in millisecond
+     * precision, so every call is a real value change.
+     */
+    @Benchmark
+    public LocalTime setValue() {
+        toggle = !toggle;
+        timePicker.setValue(toggle ? MILLIS_VALUE : OTHER_MILLIS_VALUE);
+        return timePicker.getValue();
+    }
+
+    /**
+     * Alternates between two values with nanosecond precision, exercising
+     * the {@code truncatedTo(MILLIS)} path of {@code setValue}.
+     */
+    @Benchmark
+    public LocalTime setValueTruncated() {
+        toggle = !toggle;
+        timePicker.setValue(toggle ? NANOS_VALUE : OTHER_NANOS_VALUE);
+        return timePicker.getValue();
+    }
+
+    @Benchmark
+    public LocalTime setSameValue() {
+        timePicker.setValue(MILLIS_VALUE);
+        return timePicker.getValue();
+    }
+
+    /**
+     * Refreshes the picker with the value it already has, as milliseconds of
+     * day, which shouldn't allocate.
+     */
+    @Benchmark
+    public int setSameMillisOfDay() {
+        timePicker.setMillisOfDay(34_215_123);
+        return timePicker.getMillisOfDay();
+    }
+
+    @Benchmark
+    public LocalTime setValueFromClient() {
+        toggle = !toggle;
+        timePicker.getElement().setProperty("value",
+                toggle ? "09:30:15.123" : "17:45");
+        return timePicker.getValue();
+    }
+}
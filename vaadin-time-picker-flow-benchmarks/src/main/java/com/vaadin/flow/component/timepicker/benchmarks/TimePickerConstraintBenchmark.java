@@ -0,0 +1,129 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker.benchmarks;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.component.timepicker.TimePicker;
+
+/**
+ * Benchmarks for the constraint setters of {@link TimePicker} and the
+ * server-side validation that uses them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimePickerConstraintBenchmark {
+
+    private static final Duration STEP = Duration.ofMinutes(15);
+    private static final Duration OTHER_STEP = Duration.ofSeconds(30);
+    private static final LocalTime MIN = LocalTime.of(8, 0);
+    private static final LocalTime MAX = LocalTime.of(17, 0);
+    private static final LocalTime VALID_VALUE = LocalTime.of(12, 0);
+    private static final LocalTime INVALID_VALUE = LocalTime.of(20, 0);
+
+    private ValidatingTimePicker timePicker;
+    private boolean toggle;
+
+    /**
+     * Time picker exposing the protected {@code validate()}, which runs the
+     * private {@code isInvalid(LocalTime)} check on the current value.
+     */
+    public static class ValidatingTimePicker extends TimePicker {
+
+        /**
+         * Validates the current value.
+         *
+         * @return {@code true} if the value is invalid
+         */
+        public boolean runValidation() {
+            validate();
+            return isInvalid();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        timePicker = new ValidatingTimePicker();
+        timePicker.setMinTime(MIN);
+        timePicker.setMaxTime(MAX);
+        timePicker.setRequired(true);
+    }
+
+    @Benchmark
+    public Duration setStep() {
+        toggle = !toggle;
+        timePicker.setStep(toggle ? STEP : OTHER_STEP);
+        return timePicker.getStep();
+    }
+
+    @Benchmark
+    public Locale setLocale() {
+        toggle = !toggle;
+        timePicker.setLocale(toggle ? Locale.US : Locale.GERMANY);
+        return timePicker.getLocale();
+    }
+
+    @Benchmark
+    public LocalTime setMinTime() {
+        toggle = !toggle;
+        timePicker.setMinTime(toggle ? MIN : MIN.plusHours(1));
+        return timePicker.getMinTime();
+    }
+
+    @Benchmark
+    public LocalTime setMaxTime() {
+        toggle = !toggle;
+        timePicker.setMaxTime(toggle ? MAX : MAX.minusHours(1));
+        return timePicker.getMaxTime();
+    }
+
+    @Benchmark
+    public boolean validateValid() {
+        timePicker.setValue(VALID_VALUE);
+        return timePicker.runValidation();
+    }
+
+    @Benchmark
+    public boolean validateInvalid() {
+        timePicker.setValue(INVALID_VALUE);
+        return timePicker.runValidation();
+    }
+
+    @Benchmark
+    public boolean validateEmptyRequired() {
+        timePicker.setValue(null);
+        return timePicker.runValidation();
+    }
+}
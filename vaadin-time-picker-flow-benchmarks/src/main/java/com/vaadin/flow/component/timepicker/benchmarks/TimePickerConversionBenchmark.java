@@ -0,0 +1,89 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker.benchmarks;
+
+import java.lang.reflect.Field;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.component.timepicker.TimePicker;
+import com.vaadin.flow.function.SerializableFunction;
+
+/**
+ * Benchmarks for the conversion functions between the {@code value} property
+ * of the web component and the {@link LocalTime} model value.
+ * <p>
+ * The functions are private in {@link TimePicker}, so they are looked up
+ * reflectively once per trial and invoked directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimePickerConversionBenchmark {
+
+    @Param({ "09:30", "09:30:15", "09:30:15.123" })
+    public String clientValue;
+
+    private SerializableFunction<String, LocalTime> parser;
+    private SerializableFunction<LocalTime, String> formatter;
+    private LocalTime modelValue;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        parser = getFunction("PARSER");
+        formatter = getFunction("FORMATTER");
+        modelValue = LocalTime.parse(clientValue);
+    }
+
+    @Benchmark
+    public LocalTime parse() {
+        return parser.apply(clientValue);
+    }
+
+    @Benchmark
+    public LocalTime parseInvalid() {
+        return parser.apply("not a time");
+    }
+
+    @Benchmark
+    public String format() {
+        return formatter.apply(modelValue);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T getFunction(String name)
+            throws ReflectiveOperationException {
+        Field field = TimePicker.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return (T) field.get(null);
+    }
+}
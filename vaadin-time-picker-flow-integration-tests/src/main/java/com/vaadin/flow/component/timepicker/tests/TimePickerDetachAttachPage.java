@@ -15,8 +15,12 @@
  */
 package com.vaadin.flow.component.timepicker.tests;
 
+import java.time.LocalTime;
+import java.util.Locale;
+
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.NativeButton;
+import com.vaadin.flow.component.timepicker.TimeAvailability;
 import com.vaadin.flow.component.timepicker.TimePicker;
 import com.vaadin.flow.router.Route;
 
@@ -33,6 +37,11 @@ public class TimePickerDetachAttachPage extends Div {
         TimePicker timePicker = new TimePicker();
         timePicker.setRequiredIndicatorVisible(true);
         timePicker.setId("time-picker");
+        // client state that is only sent to a new client side element
+        timePicker.setLocale(Locale.GERMANY);
+        TimeAvailability availability = new TimeAvailability();
+        availability.block(LocalTime.of(12, 0), LocalTime.of(13, 0));
+        timePicker.setAvailability(availability);
         add(timePicker);
 
         NativeButton toggleAttached = new NativeButton("toggle attached", e -> {
@@ -44,5 +53,13 @@ public class TimePickerDetachAttachPage extends Div {
         });
         toggleAttached.setId("toggle-attached");
         add(toggleAttached);
+
+        NativeButton reattach = new NativeButton(
+                "detach and attach in the same round trip", e -> {
+                    remove(timePicker);
+                    add(timePicker);
+                });
+        reattach.setId("reattach");
+        add(reattach);
     }
 }
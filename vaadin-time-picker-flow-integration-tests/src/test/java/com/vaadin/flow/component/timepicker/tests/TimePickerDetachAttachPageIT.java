@@ -43,6 +43,69 @@ public class TimePickerDetachAttachPageIT extends AbstractComponentIT {
         assertTimePickerIsValidOnTab();
     }
 
+    @Test
+    public void reattachInSameRoundTrip_noJavaScriptCalls() {
+        open();
+        countConnectorCalls();
+
+        findElement(By.id("reattach")).click();
+        Assert.assertEquals(0L, getConnectorInitCount());
+        Assert.assertEquals("Re-attach should not call the connector", 0L,
+                getConnectorCallCount());
+        assertTimePickerHasConnector();
+        assertTimePickerIsValidOnTab();
+
+        // Detaching and attaching time picker in separate round trips
+        WebElement toggleAttach = findElement(By.id("toggle-attached"));
+        toggleAttach.click();
+        toggleAttach.click();
+        Assert.assertEquals(1L, getConnectorInitCount());
+        assertTimePickerHasConnector();
+        assertTimePickerIsValidOnTab();
+    }
+
+    /*
+     * Counts the connector inits, and the calls to the connector of the
+     * current client side time picker element. All the JavaScript calls of
+     * the time picker go through these.
+     */
+    private void countConnectorCalls() {
+        executeScript("const count = function (target, name, counter) {"
+                + "  const original = target[name];"
+                + "  target[name] = function () {"
+                + "    window[counter]++;"
+                + "    return original.apply(this, arguments);"
+                + "  };"
+                + "};"
+                + "window.connectorInitCount = 0;"
+                + "window.connectorCallCount = 0;"
+                + "const connector = window.Vaadin.Flow.timepickerConnector;"
+                + "count(connector, 'initLazyAll', 'connectorInitCount');"
+                + "count(connector, 'initLazy', 'connectorCallCount');"
+                + "const timePickerConnector = arguments[0].$connector;"
+                + "Object.keys(timePickerConnector).forEach(function (name) {"
+                + "  if (typeof timePickerConnector[name] === 'function') {"
+                + "    count(timePickerConnector, name, 'connectorCallCount');"
+                + "  }"
+                + "});", findElement(By.id("time-picker")));
+    }
+
+    private long getConnectorInitCount() {
+        return (Long) executeScript("return window.connectorInitCount;");
+    }
+
+    private long getConnectorCallCount() {
+        return (Long) executeScript("return window.connectorCallCount;");
+    }
+
+    private void assertTimePickerHasConnector() {
+        WebElement timePicker = findElement(By.id("time-picker"));
+        Assert.assertTrue("Time picker should have the connector",
+                (Boolean) executeScript(
+                        "return !!arguments[0].$connector && !!arguments[0].$connector.setLocale;",
+                        timePicker));
+    }
+
     private void assertTimePickerIsValidOnTab() {
         WebElement timePicker = findElement(By.id("time-picker"));
         timePicker.sendKeys(Keys.TAB);
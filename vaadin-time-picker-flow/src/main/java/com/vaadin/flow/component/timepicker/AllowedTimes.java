@@ -0,0 +1,142 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+
+/**
+ * An immutable set of allowed times of a {@link TimePicker}, stored as a
+ * bitset over a grid of slots of the given step, so that checking a time is a
+ * single bit test. Used internally only.
+ * <p>
+ * For the client, the set is encoded as alternating run lengths of not
+ * allowed and allowed slots, starting with a (possibly empty) run of not
+ * allowed slots. A trailing run of not allowed slots is omitted.
+ *
+ * @author Vaadin Ltd
+ */
+final class AllowedTimes implements Serializable {
+
+    private static final int SECONDS_IN_A_DAY = 86400;
+
+    private final int stepSeconds;
+    private final BitSet slots;
+
+    /**
+     * Creates a new set of allowed times.
+     *
+     * @param step
+     *            the step of the grid, a whole number of seconds that divides
+     *            a day evenly
+     * @param times
+     *            the allowed times, each on the grid
+     * @throws IllegalArgumentException
+     *             if the step is not valid for the grid or a time is not on
+     *             the grid
+     */
+    AllowedTimes(Duration step, Collection<LocalTime> times) {
+        if (step.getNano() != 0 || step.getSeconds() < 1
+                || SECONDS_IN_A_DAY % step.getSeconds() != 0) {
+            throw new IllegalArgumentException("Allowed times need a step of "
+                    + "whole seconds that divides a day evenly, was " + step);
+        }
+        stepSeconds = (int) step.getSeconds();
+        slots = new BitSet(SECONDS_IN_A_DAY / stepSeconds);
+        for (LocalTime time : times) {
+            int slot = toSlot(time);
+            if (slot < 0) {
+                throw new IllegalArgumentException("Allowed time " + time
+                        + " is not a multiple of the step " + step);
+            }
+            slots.set(slot);
+        }
+    }
+
+    /**
+     * Gets whether the given time is allowed. A time that is not on the grid
+     * is never allowed.
+     *
+     * @param time
+     *            the time to check, not {@code null}
+     * @return {@code true} if the time is allowed, {@code false} otherwise
+     */
+    boolean contains(LocalTime time) {
+        int slot = toSlot(time);
+        return slot >= 0 && slots.get(slot);
+    }
+
+    /**
+     * Gets the step of the grid.
+     *
+     * @return the step in seconds
+     */
+    int getStepSeconds() {
+        return stepSeconds;
+    }
+
+    /**
+     * Gets the allowed times.
+     *
+     * @return an unmodifiable sorted set of the allowed times
+     */
+    SortedSet<LocalTime> toTimes() {
+        SortedSet<LocalTime> times = new TreeSet<>();
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots
+                .nextSetBit(slot + 1)) {
+            times.add(LocalTime.ofSecondOfDay((long) slot * stepSeconds));
+        }
+        return Collections.unmodifiableSortedSet(times);
+    }
+
+    /**
+     * Encodes the allowed times as run lengths. The size of the encoding
+     * depends on the number of runs, not on the number of slots.
+     *
+     * @return the run lengths, starting with not allowed slots
+     */
+    JsonArray toRuns() {
+        JsonArray runs = Json.createArray();
+        int index = 0;
+        int start = 0;
+        int from = slots.nextSetBit(0);
+        while (from >= 0) {
+            int to = slots.nextClearBit(from);
+            runs.set(index++, from - start);
+            runs.set(index++, to - from);
+            start = to;
+            from = slots.nextSetBit(to);
+        }
+        return runs;
+    }
+
+    private int toSlot(LocalTime time) {
+        int secondOfDay = time.toSecondOfDay();
+        if (time.getNano() != 0 || secondOfDay % stepSeconds != 0) {
+            return -1;
+        }
+        return secondOfDay / stepSeconds;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.timepicker.TimePickerMetricsRecorder.Timing;
+
+/**
+ * Queues the calls to the client side connector of a time picker during a
+ * round trip, so that they are sent as a single JavaScript call right before
+ * the response. A call that replaces the state set by an earlier call of the
+ * same function, such as {@code setLocale}, supersedes the earlier call, so
+ * only the last one is sent.
+ *
+ * @author Vaadin Ltd
+ */
+final class ConnectorCommandQueue implements Serializable {
+
+    private static final class Command implements Serializable {
+        private final String function;
+        private final boolean replaceable;
+        private final Serializable[] arguments;
+
+        private Command(String function, boolean replaceable,
+                Serializable[] arguments) {
+            this.function = function;
+            this.replaceable = replaceable;
+            this.arguments = arguments;
+        }
+    }
+
+    private final TimePicker timePicker;
+    private final List<Command> commands = new ArrayList<>();
+    private boolean scheduled;
+
+    /**
+     * Creates a new queue for the connector of the given time picker.
+     *
+     * @param timePicker
+     *            the time picker to call the connector of
+     */
+    ConnectorCommandQueue(TimePicker timePicker) {
+        this.timePicker = timePicker;
+    }
+
+    /**
+     * Queues a call of a connector function that replaces the state set by
+     * earlier calls of the same function. An earlier queued call of the
+     * function is dropped.
+     *
+     * @param function
+     *            the name of the connector function
+     * @param arguments
+     *            the arguments of the call
+     */
+    void set(String function, Serializable... arguments) {
+        Iterator<Command> iterator = commands.iterator();
+        while (iterator.hasNext()) {
+            Command command = iterator.next();
+            if (command.replaceable && command.function.equals(function)) {
+                iterator.remove();
+            }
+        }
+        queue(new Command(function, true, arguments));
+    }
+
+    /**
+     * Queues a call of a connector function that applies a change, so that
+     * all the calls are sent in the order they are queued.
+     *
+     * @param function
+     *            the name of the connector function
+     * @param arguments
+     *            the arguments of the call
+     */
+    void add(String function, Serializable... arguments) {
+        queue(new Command(function, false, arguments));
+    }
+
+    private void queue(Command command) {
+        commands.add(command);
+        if (!scheduled) {
+            scheduled = true;
+            timePicker.getElement().getNode()
+                    .runWhenAttached(ui -> ui.beforeClientResponse(timePicker,
+                            context -> {
+                                scheduled = false;
+                                // the connector needs to exist before it is
+                                // called
+                                ConnectorInitBatch.flush(ui);
+                                send(ui);
+                            }));
+        }
+    }
+
+    private void send(UI ui) {
+        if (commands.isEmpty()) {
+            return;
+        }
+        Timing timing = TimePickerMetricsRecorder.start(ui);
+        List<Serializable> parameters = new ArrayList<>();
+        StringBuilder expression = new StringBuilder(
+                "const connector = this.$connector;");
+        for (Command command : commands) {
+            expression.append(" connector.").append(command.function)
+                    .append('(');
+            for (int i = 0; i < command.arguments.length; i++) {
+                if (i > 0) {
+                    expression.append(", ");
+                }
+                expression.append('$').append(parameters.size());
+                parameters.add(Objects.requireNonNull(command.arguments[i]));
+            }
+            expression.append(");");
+        }
+        commands.clear();
+        timePicker.getElement().executeJs(expression.toString(),
+                parameters.toArray(new Serializable[0]));
+        TimePickerMetricsRecorder.record(
+                TimePickerOperation.JAVASCRIPT_EXECUTION, ui, timePicker,
+                timing);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.timepicker.TimePickerMetricsRecorder.Timing;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+
+/**
+ * Collects the time pickers of a UI that need their client side connector
+ * initialized, so that all of them are initialized with a single JavaScript
+ * call per round trip.
+ *
+ * @author Vaadin Ltd
+ */
+final class ConnectorInitBatch implements Serializable {
+
+    private final Set<TimePicker> timePickers = new LinkedHashSet<>();
+
+    private ConnectorInitBatch() {
+        // instances are only created through add(UI, TimePicker)
+    }
+
+    /**
+     * Adds the time picker to the connector init batch of the given UI. The
+     * batch is sent right before the response to the client, unless it is
+     * flushed earlier with {@link #flush(UI)}.
+     *
+     * @param ui
+     *            the UI the time picker is attached to
+     * @param timePicker
+     *            the time picker to initialize
+     */
+    static void add(UI ui, TimePicker timePicker) {
+        ConnectorInitBatch batch = ComponentUtil.getData(ui,
+                ConnectorInitBatch.class);
+        if (batch == null) {
+            batch = new ConnectorInitBatch();
+            ComponentUtil.setData(ui, ConnectorInitBatch.class, batch);
+        }
+        if (batch.timePickers.isEmpty()) {
+            ConnectorInitBatch pending = batch;
+            ui.beforeClientResponse(ui, context -> pending.send(ui));
+        }
+        batch.timePickers.add(timePicker);
+    }
+
+    /**
+     * Sends the pending connector inits of the given UI, if any. This needs to
+     * be called before any call to a connector so that the connector exists
+     * when the call is run in the browser.
+     *
+     * @param ui
+     *            the UI to flush the batch for
+     */
+    static void flush(UI ui) {
+        ConnectorInitBatch batch = ComponentUtil.getData(ui,
+                ConnectorInitBatch.class);
+        if (batch != null) {
+            batch.send(ui);
+        }
+    }
+
+    private void send(UI ui) {
+        if (timePickers.isEmpty()) {
+            return;
+        }
+        Timing timing = TimePickerMetricsRecorder.start(ui);
+        List<Serializable> parameters = new ArrayList<>(
+                timePickers.size() + 1);
+        JsonArray invalid = Json.createArray();
+        StringBuilder expression = new StringBuilder(
+                "window.Vaadin.Flow.timepickerConnector.initLazyAll([");
+        for (TimePicker timePicker : timePickers) {
+            // skip the ones detached or moved to another UI after being added
+            if (timePicker.getUI().orElse(null) != ui) {
+                continue;
+            }
+            Timing pickerTiming = TimePickerMetricsRecorder.start(ui);
+            if (!parameters.isEmpty()) {
+                expression.append(", ");
+            }
+            expression.append('$').append(parameters.size());
+            invalid.set(parameters.size(), timePicker.isInvalid());
+            parameters.add(timePicker.getElement());
+            TimePickerMetricsRecorder.record(
+                    TimePickerOperation.CONNECTOR_INIT, ui, timePicker,
+                    pickerTiming);
+        }
+        timePickers.clear();
+        if (parameters.isEmpty()) {
+            return;
+        }
+        expression.append("], $").append(parameters.size()).append(')');
+        parameters.add(invalid);
+        ui.getPage().executeJs(expression.toString(),
+                parameters.toArray(new Serializable[0]));
+        TimePickerMetricsRecorder.record(
+                TimePickerOperation.JAVASCRIPT_EXECUTION, ui, null, timing);
+    }
+}
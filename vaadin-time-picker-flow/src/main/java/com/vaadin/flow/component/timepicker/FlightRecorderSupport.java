@@ -0,0 +1,128 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+
+/**
+ * Reports the operations of time pickers as Flight Recorder events when the
+ * JVM has Flight Recorder and a recording has the events enabled. The event
+ * class, the only one using the Flight Recorder API, is loaded reflectively
+ * and never when Flight Recorder is not available.
+ *
+ * @author Vaadin Ltd
+ */
+final class FlightRecorderSupport {
+
+    /**
+     * An event begun for an operation.
+     */
+    interface OperationEvent {
+
+        /**
+         * Ends the operation and commits the event, if the recording has
+         * the events enabled.
+         *
+         * @param operation
+         *            the operation
+         * @param ui
+         *            the UI of the time picker, or {@code null}
+         * @param timePicker
+         *            the time picker, or {@code null}
+         */
+        void end(TimePickerOperation operation, UI ui, TimePicker timePicker);
+    }
+
+    /**
+     * Creates the events, implemented with the Flight Recorder API.
+     */
+    interface EventFactory {
+
+        boolean isEnabled();
+
+        OperationEvent begin();
+
+        void commitInstant(TimePickerOperation operation, UI ui,
+                TimePicker timePicker);
+    }
+
+    private static final String EVENT_FACTORY = FlightRecorderSupport.class
+            .getPackage().getName() + ".TimePickerFlightRecorderEvent$Factory";
+
+    private static final EventFactory FACTORY = loadEventFactory();
+
+    private FlightRecorderSupport() {
+        // static helpers only
+    }
+
+    /**
+     * Gets whether the events are recorded.
+     *
+     * @return {@code true} if the events are enabled in a recording,
+     *         {@code false} otherwise
+     */
+    static boolean isEnabled() {
+        return FACTORY != null && FACTORY.isEnabled();
+    }
+
+    /**
+     * Begins an event for an operation that is starting. Must only be called
+     * when {@link #isEnabled()} returns {@code true}.
+     *
+     * @return the begun event
+     */
+    static OperationEvent begin() {
+        return FACTORY.begin();
+    }
+
+    /**
+     * Records an operation that is only counted as an event without a
+     * duration. Must only be called when {@link #isEnabled()} returns
+     * {@code true}.
+     *
+     * @param operation
+     *            the operation
+     * @param ui
+     *            the UI of the time picker, or {@code null}
+     * @param timePicker
+     *            the time picker, or {@code null}
+     */
+    static void commitInstant(TimePickerOperation operation, UI ui,
+            TimePicker timePicker) {
+        FACTORY.commitInstant(operation, ui, timePicker);
+    }
+
+    private static EventFactory loadEventFactory() {
+        ClassLoader classLoader = FlightRecorderSupport.class.getClassLoader();
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+        try {
+            return Class.forName(EVENT_FACTORY, true, classLoader)
+                    .asSubclass(EventFactory.class).getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // eg. a Java 8 update with only part of the API
+            LoggerFactory.getLogger(FlightRecorderSupport.class)
+                    .debug("Flight Recorder events are not available", e);
+            return null;
+        }
+    }
+}
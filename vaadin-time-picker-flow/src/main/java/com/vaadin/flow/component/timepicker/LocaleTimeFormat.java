@@ -0,0 +1,134 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import java.io.Serializable;
+import java.time.chrono.IsoChronology;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+/**
+ * Describes how a locale formats the time of day on the server: whether it
+ * uses a 12 or a 24 hour clock. The clock is derived from the localized time
+ * pattern of the JDK and sent to the connector, so that the browser formats
+ * the times with the same clock as the server.
+ * <p>
+ * The AM/PM strings and the separator are not sent, as the JDK and the
+ * browser don't agree on them for many locales, eg. es-MX and hi-IN, and the
+ * browser parses the strings it has formatted itself. The connector takes
+ * them from the browser, formatting with the clock given here.
+ * <p>
+ * Only the language and the country of a locale are used, as the browser
+ * side only uses those too. Descriptors are cached for the lifetime of the
+ * JVM.
+ *
+ * @author Vaadin Ltd
+ */
+final class LocaleTimeFormat implements Serializable {
+
+    // there is a limited number of locales, but don't let arbitrary locales
+    // from the clients grow the cache without limit
+    private static final int MAX_CACHED_LOCALES = 1000;
+
+    private static final ConcurrentMap<Locale, LocaleTimeFormat> CACHE = new ConcurrentHashMap<>();
+
+    private final String languageTag;
+    private final boolean hour12;
+
+    private LocaleTimeFormat(Locale locale) {
+        StringBuilder bcp47LanguageTag = new StringBuilder(
+                locale.getLanguage());
+        if (!locale.getCountry().isEmpty()) {
+            bcp47LanguageTag.append("-").append(locale.getCountry());
+        }
+        languageTag = bcp47LanguageTag.toString();
+
+        String pattern = DateTimeFormatterBuilder.getLocalizedDateTimePattern(
+                null, FormatStyle.MEDIUM, IsoChronology.INSTANCE, locale);
+        boolean twelveHourClock = false;
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && isHourLetter(c)) {
+                twelveHourClock = c == 'h' || c == 'K';
+                break;
+            }
+        }
+        hour12 = twelveHourClock;
+    }
+
+    /**
+     * Gets the time format of the given locale.
+     *
+     * @param locale
+     *            the locale to get the time format for, not {@code null}
+     * @return the time format of the locale
+     */
+    static LocaleTimeFormat of(Locale locale) {
+        Locale key = new Locale(locale.getLanguage(), locale.getCountry());
+        LocaleTimeFormat format = CACHE.get(key);
+        if (format == null) {
+            format = new LocaleTimeFormat(key);
+            if (CACHE.size() < MAX_CACHED_LOCALES) {
+                CACHE.putIfAbsent(key, format);
+            }
+        }
+        return format;
+    }
+
+    /**
+     * Gets the BCP 47 language tag of the locale, containing only the
+     * language and the country.
+     *
+     * @return the language tag
+     */
+    String getLanguageTag() {
+        return languageTag;
+    }
+
+    /**
+     * Gets whether the locale uses a 12 hour clock on the server.
+     *
+     * @return {@code true} for a 12 hour clock, {@code false} for a 24 hour
+     *         clock
+     */
+    boolean isHour12() {
+        return hour12;
+    }
+
+    /**
+     * Creates the JSON payload of the time format for the connector.
+     *
+     * @return a new JSON object describing the time format
+     */
+    JsonObject toJson() {
+        JsonObject json = Json.createObject();
+        json.put("hour12", hour12);
+        return json;
+    }
+
+    private static boolean isHourLetter(char c) {
+        return c == 'h' || c == 'H' || c == 'k' || c == 'K';
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the available locales that are supported by the time picker,
+ * meaning the ones that have a language. The registry is built once on first
+ * use and is immutable, apart from the memoized resolutions of arbitrary
+ * locales to supported ones.
+ *
+ * @author Vaadin Ltd
+ */
+final class SupportedLocales {
+
+    /**
+     * The locale resolved to when nothing closer is supported, same as the
+     * browser falls back to.
+     */
+    static final Locale DEFAULT_LOCALE = Locale.US;
+
+    // user locales are arbitrary, so don't let them grow the memo without
+    // limit
+    private static final int MAX_MEMOIZED_RESOLUTIONS = 1000;
+
+    private final List<Locale> locales;
+    private final Map<String, Locale> localesByLanguageTag;
+    private final Map<String, Locale> localesByCountry;
+    private final ConcurrentMap<Locale, Locale> resolvedLocales = new ConcurrentHashMap<>();
+
+    private static final class InstanceHolder {
+        private static final SupportedLocales INSTANCE = new SupportedLocales();
+    }
+
+    private SupportedLocales() {
+        Locale[] availableLocales = Locale.getAvailableLocales();
+        List<Locale> supported = new ArrayList<>(availableLocales.length);
+        Map<String, Locale> byLanguageTag = new HashMap<>();
+        Map<String, Locale> byCountry = new HashMap<>();
+        for (Locale locale : availableLocales) {
+            if (locale.getLanguage().isEmpty()) {
+                continue;
+            }
+            supported.add(locale);
+            byLanguageTag.putIfAbsent(locale.toLanguageTag(), locale);
+            String country = locale.getCountry();
+            if (!country.isEmpty() && locale.getScript().isEmpty()
+                    && locale.getVariant().isEmpty()) {
+                byCountry.merge(country, locale,
+                        SupportedLocales::preferredForCountry);
+            }
+        }
+        locales = Collections.unmodifiableList(supported);
+        localesByLanguageTag = byLanguageTag;
+        localesByCountry = byCountry;
+    }
+
+    /**
+     * Gets the registry instance, building it on first use.
+     *
+     * @return the registry of supported locales
+     */
+    static SupportedLocales get() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Gets the supported locales, in the order of
+     * {@link Locale#getAvailableLocales()}.
+     *
+     * @return an unmodifiable list of the supported locales
+     */
+    List<Locale> getLocales() {
+        return locales;
+    }
+
+    /**
+     * Gets the supported locale with the given BCP 47 language tag.
+     *
+     * @param languageTag
+     *            the language tag, not {@code null}
+     * @return the supported locale, or {@code null} if there is none with the
+     *         given language tag
+     */
+    Locale getLocale(String languageTag) {
+        Locale locale = localesByLanguageTag.get(languageTag);
+        if (locale == null) {
+            // not in the normalized form, eg. wrong case or _ as separator
+            locale = localesByLanguageTag.get(Locale
+                    .forLanguageTag(languageTag.replace('_', '-'))
+                    .toLanguageTag());
+        }
+        return locale;
+    }
+
+    /**
+     * Resolves the supported locale closest to the given locale. The given
+     * locale itself is returned when it is supported, otherwise the fallback
+     * is the supported locale with the same language and country, then with
+     * the same language only. A locale without a language resolves to a
+     * supported locale of the same country. {@link #DEFAULT_LOCALE} is used
+     * when there is nothing closer.
+     *
+     * @param locale
+     *            the locale to resolve, not {@code null}
+     * @return the closest supported locale, not {@code null}
+     */
+    Locale resolve(Locale locale) {
+        Locale resolved = resolvedLocales.get(locale);
+        if (resolved == null) {
+            resolved = findClosest(locale);
+            if (resolvedLocales.size() < MAX_MEMOIZED_RESOLUTIONS) {
+                resolvedLocales.putIfAbsent(locale, resolved);
+            }
+        }
+        return resolved;
+    }
+
+    private Locale findClosest(Locale locale) {
+        String language = locale.getLanguage();
+        String country = locale.getCountry();
+        Locale closest;
+        if (language.isEmpty()) {
+            closest = localesByCountry.get(country);
+        } else {
+            closest = localesByLanguageTag.get(locale.toLanguageTag());
+            if (closest == null && !country.isEmpty()) {
+                closest = localesByLanguageTag
+                        .get(new Locale(language, country).toLanguageTag());
+            }
+            if (closest == null) {
+                closest = localesByLanguageTag.get(language);
+            }
+        }
+        return closest != null ? closest : DEFAULT_LOCALE;
+    }
+
+    /**
+     * Picks the locale to use for a country when the language is not known:
+     * the national language when its code matches the country code (eg.
+     * fi-FI), then English, then the first one by language tag.
+     */
+    private static Locale preferredForCountry(Locale current,
+            Locale candidate) {
+        int rankDifference = rankForCountry(candidate)
+                - rankForCountry(current);
+        if (rankDifference == 0) {
+            rankDifference = candidate.toLanguageTag()
+                    .compareTo(current.toLanguageTag());
+        }
+        return rankDifference < 0 ? candidate : current;
+    }
+
+    private static int rankForCountry(Locale locale) {
+        if (locale.getLanguage().equalsIgnoreCase(locale.getCountry())) {
+            return 0;
+        }
+        return "en".equals(locale.getLanguage()) ? 1 : 2;
+    }
+}
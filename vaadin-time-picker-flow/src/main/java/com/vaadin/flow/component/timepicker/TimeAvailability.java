@@ -0,0 +1,372 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import java.io.Serializable;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.shared.Registration;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+
+/**
+ * Blocked time ranges of one or more {@link TimePicker}s, eg. the reserved
+ * slots of a booking calendar. Blocked times are hidden from the dropdown and
+ * make the value of the time picker invalid.
+ * <p>
+ * The ranges can be updated incrementally from any thread, eg. from a
+ * background feed of reservations. The same instance can be shared by any
+ * number of time pickers, and only the changed range is sent to each of the
+ * attached time pickers, using {@link com.vaadin.flow.component.UI#access}.
+ * The ranges are kept in a sorted array of primitive start and end times, so
+ * checking whether a time is blocked is a binary search.
+ * <p>
+ * All the ranges are half-open: the start time is included and the end time
+ * is not. An end time of {@link LocalTime#MIDNIGHT} means the end of the day,
+ * so {@code block(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT)} blocks the whole
+ * day.
+ *
+ * @author Vaadin Ltd
+ * @see TimePicker#setAvailability(TimeAvailability)
+ */
+public class TimeAvailability implements Serializable {
+
+    private static final int MILLISECONDS_IN_A_DAY = 86400000;
+
+    /**
+     * Listener for changed ranges. The listeners are not called while the
+     * ranges are locked, but the changes are still seen in the order they are
+     * made. A change made before a listener is removed is still delivered to
+     * it.
+     */
+    @FunctionalInterface
+    interface RangeListener extends Serializable {
+        void rangeChanged(boolean blocked, int from, int to);
+    }
+
+    private static final class RangeChange implements Serializable {
+        private final boolean blocked;
+        private final int from;
+        private final int to;
+        // the listeners when the change was made
+        private final RangeListener[] listeners;
+
+        private RangeChange(boolean blocked, int from, int to,
+                RangeListener[] listeners) {
+            this.blocked = blocked;
+            this.from = from;
+            this.to = to;
+            this.listeners = listeners;
+        }
+    }
+
+    /*
+     * The blocked ranges as start and end millisecond of day pairs, sorted and
+     * neither overlapping nor adjacent. Replaced on each change, so that
+     * reading doesn't need locking.
+     */
+    private volatile int[] ranges = new int[0];
+
+    // incremented on each change
+    private volatile int version;
+
+    /*
+     * Not serialized, the listeners are bound to the attached time pickers.
+     * Replaced when changed, so that each change keeps the listeners it was
+     * made with.
+     */
+    private transient RangeListener[] listeners;
+
+    /*
+     * Changes not yet delivered to the listeners, and whether a thread is
+     * delivering them. Only one thread at a time delivers the changes, in the
+     * order they were made, without holding the lock while calling the
+     * listeners.
+     */
+    private transient Deque<RangeChange> pendingChanges;
+    private transient boolean notifying;
+
+    /**
+     * Blocks the times from the start time, inclusive, to the end time,
+     * exclusive.
+     *
+     * @param from
+     *            the start time of the range, not {@code null}
+     * @param to
+     *            the end time of the range, or {@link LocalTime#MIDNIGHT} for
+     *            the end of the day, not {@code null}
+     * @throws IllegalArgumentException
+     *             if the end time is before the start time
+     */
+    public void block(LocalTime from, LocalTime to) {
+        update(true, from, to);
+    }
+
+    /**
+     * Unblocks the times from the start time, inclusive, to the end time,
+     * exclusive.
+     *
+     * @param from
+     *            the start time of the range, not {@code null}
+     * @param to
+     *            the end time of the range, or {@link LocalTime#MIDNIGHT} for
+     *            the end of the day, not {@code null}
+     * @throws IllegalArgumentException
+     *             if the end time is before the start time
+     */
+    public void unblock(LocalTime from, LocalTime to) {
+        update(false, from, to);
+    }
+
+    /**
+     * Gets whether the given time is blocked.
+     *
+     * @param time
+     *            the time to check, not {@code null}
+     * @return {@code true} if the time is blocked, {@code false} otherwise
+     */
+    public boolean isBlocked(LocalTime time) {
+        Objects.requireNonNull(time, "Time cannot be null");
+        int millisOfDay = (int) (time.toNanoOfDay() / 1000000);
+        int[] ranges = this.ranges;
+        // the last range starting at or before the time
+        int low = 0;
+        int high = ranges.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (ranges[2 * mid] <= millisOfDay) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high >= 0 && millisOfDay < ranges[2 * high + 1];
+    }
+
+    /**
+     * Gets the number of separate blocked ranges. Adjacent and overlapping
+     * blocked ranges are merged.
+     *
+     * @return the number of blocked ranges
+     */
+    public int getBlockedRangeCount() {
+        return ranges.length / 2;
+    }
+
+    /**
+     * Adds a listener for the changes. The listener is called with the same
+     * arguments as the change, not with the resulting ranges.
+     *
+     * @param listener
+     *            the listener to add, not {@code null}
+     * @return a registration for removing the listener
+     */
+    synchronized Registration addRangeListener(RangeListener listener) {
+        Objects.requireNonNull(listener, "Listener cannot be null");
+        if (listeners == null) {
+            listeners = new RangeListener[] { listener };
+        } else {
+            listeners = Arrays.copyOf(listeners, listeners.length + 1);
+            listeners[listeners.length - 1] = listener;
+        }
+        return () -> removeRangeListener(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addRangeListener(RangeListener)}.
+     *
+     * @param listener
+     *            the listener to remove
+     */
+    synchronized void removeRangeListener(RangeListener listener) {
+        if (listeners == null) {
+            return;
+        }
+        List<RangeListener> remaining = new ArrayList<>(
+                Arrays.asList(listeners));
+        if (remaining.remove(listener)) {
+            listeners = remaining.isEmpty() ? null
+                    : remaining.toArray(new RangeListener[0]);
+        }
+    }
+
+    /**
+     * Gets the version of the ranges, which changes on each change. Comparing
+     * the versions tells whether the ranges have been changed in between.
+     *
+     * @return the version of the ranges
+     */
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets all the blocked ranges for the client.
+     *
+     * @return the start and end millisecond of day pairs
+     */
+    JsonArray toJson() {
+        int[] ranges = this.ranges;
+        JsonArray json = Json.createArray();
+        for (int i = 0; i < ranges.length; i++) {
+            json.set(i, ranges[i]);
+        }
+        return json;
+    }
+
+    private void update(boolean blocked, LocalTime fromTime,
+            LocalTime toTime) {
+        Objects.requireNonNull(fromTime, "Start time cannot be null");
+        Objects.requireNonNull(toTime, "End time cannot be null");
+        int from = (int) (fromTime.toNanoOfDay() / 1000000);
+        int to = toTime.equals(LocalTime.MIDNIGHT) ? MILLISECONDS_IN_A_DAY
+                : (int) (toTime.toNanoOfDay() / 1000000);
+        if (to < from) {
+            throw new IllegalArgumentException("End time " + toTime
+                    + " cannot be before start time " + fromTime);
+        }
+        if (from == to) {
+            return;
+        }
+        synchronized (this) {
+            ranges = blocked ? block(ranges, from, to)
+                    : unblock(ranges, from, to);
+            version++;
+            if (listeners == null) {
+                return;
+            }
+            if (pendingChanges == null) {
+                pendingChanges = new ArrayDeque<>();
+            }
+            pendingChanges.add(new RangeChange(blocked, from, to, listeners));
+            if (notifying) {
+                // delivered by the thread already notifying, after the
+                // earlier changes
+                return;
+            }
+            notifying = true;
+        }
+        notifyListeners();
+    }
+
+    private void notifyListeners() {
+        boolean done = false;
+        try {
+            while (true) {
+                RangeChange change;
+                synchronized (this) {
+                    change = pendingChanges.poll();
+                    if (change == null) {
+                        notifying = false;
+                        done = true;
+                        return;
+                    }
+                }
+                for (RangeListener listener : change.listeners) {
+                    try {
+                        listener.rangeChanged(change.blocked, change.from,
+                                change.to);
+                    } catch (RuntimeException e) {
+                        // the other listeners must still see the change
+                        LoggerFactory.getLogger(TimeAvailability.class).error(
+                                "Notifying a time picker of a changed range failed",
+                                e);
+                    }
+                }
+            }
+        } finally {
+            if (!done) {
+                synchronized (this) {
+                    // eg. an error, let the next change resume notifying
+                    notifying = false;
+                }
+            }
+        }
+    }
+
+    private static int[] block(int[] ranges, int from, int to) {
+        // the first range ending at or after the start, ie. touching the
+        // blocked range or after it
+        int first = firstRangeEndingAtOrAfter(ranges, from);
+        int last = first;
+        while (last < ranges.length / 2 && ranges[2 * last] <= to) {
+            last++;
+        }
+        if (first < last) {
+            from = Math.min(from, ranges[2 * first]);
+            to = Math.max(to, ranges[2 * last - 1]);
+        }
+        int[] result = new int[ranges.length - 2 * (last - first) + 2];
+        System.arraycopy(ranges, 0, result, 0, 2 * first);
+        result[2 * first] = from;
+        result[2 * first + 1] = to;
+        System.arraycopy(ranges, 2 * last, result, 2 * first + 2,
+                ranges.length - 2 * last);
+        return result;
+    }
+
+    private static int[] unblock(int[] ranges, int from, int to) {
+        // ranges ending at the start are not affected
+        int first = firstRangeEndingAtOrAfter(ranges, from + 1);
+        int last = first;
+        while (last < ranges.length / 2 && ranges[2 * last] < to) {
+            last++;
+        }
+        if (first == last) {
+            return ranges;
+        }
+        boolean keepHead = ranges[2 * first] < from;
+        boolean keepTail = ranges[2 * last - 1] > to;
+        int kept = (keepHead ? 1 : 0) + (keepTail ? 1 : 0);
+        int[] result = new int[ranges.length - 2 * (last - first) + 2 * kept];
+        System.arraycopy(ranges, 0, result, 0, 2 * first);
+        int index = 2 * first;
+        if (keepHead) {
+            result[index++] = ranges[2 * first];
+            result[index++] = from;
+        }
+        if (keepTail) {
+            result[index++] = to;
+            result[index++] = ranges[2 * last - 1];
+        }
+        System.arraycopy(ranges, 2 * last, result, index,
+                ranges.length - 2 * last);
+        return result;
+    }
+
+    private static int firstRangeEndingAtOrAfter(int[] ranges, int time) {
+        int low = 0;
+        int high = ranges.length / 2;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ranges[2 * mid + 1] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Immutable set of constraints for a {@link TimePicker}: the minimum and
+ * maximum time, the step, whether a value is required and the locale.
+ * <p>
+ * Instances are created by starting from {@link #NONE} and calling the
+ * {@code with} methods, each of which returns a new instance. As the
+ * constraints are immutable, the same instance can be shared by any number of
+ * time pickers, eg. all the pickers using the same business hours:
+ *
+ * <pre>
+ * TimeConstraints businessHours = TimeConstraints.NONE
+ *         .withMin(LocalTime.of(8, 0)).withMax(LocalTime.of(17, 0))
+ *         .withStep(Duration.ofMinutes(15)).withRequired(true);
+ * </pre>
+ *
+ * @author Vaadin Ltd
+ * @see TimePicker#setConstraints(TimeConstraints)
+ * @see TimePicker#rebind(LocalTime, TimeConstraints)
+ */
+public final class TimeConstraints implements Serializable {
+
+    /**
+     * Constraints that don't restrict the value: no minimum or maximum, the
+     * default step, no value required and no locale of their own.
+     */
+    public static final TimeConstraints NONE = new TimeConstraints(null, null,
+            null, false, null);
+
+    private static final long MILLISECONDS_IN_A_DAY = 86400000L;
+    private static final long MILLISECONDS_IN_AN_HOUR = 3600000L;
+
+    private final LocalTime min;
+    private final LocalTime max;
+    private final Duration step;
+    private final boolean required;
+    private final Locale locale;
+
+    private TimeConstraints(LocalTime min, LocalTime max, Duration step,
+            boolean required, Locale locale) {
+        this.min = min;
+        this.max = max;
+        this.step = step;
+        this.required = required;
+        this.locale = locale;
+    }
+
+    /**
+     * Gets the minimum time.
+     *
+     * @return the minimum time that is allowed to be selected, or
+     *         <code>null</code> if there's no minimum
+     */
+    public LocalTime getMin() {
+        return min;
+    }
+
+    /**
+     * Creates a copy of these constraints with the given minimum time.
+     *
+     * @param min
+     *            the minimum time that is allowed to be selected, or
+     *            <code>null</code> to remove any minimum constraints
+     * @return new constraints with the given minimum time
+     */
+    public TimeConstraints withMin(LocalTime min) {
+        return new TimeConstraints(min, max, step, required, locale);
+    }
+
+    /**
+     * Gets the maximum time.
+     *
+     * @return the maximum time that is allowed to be selected, or
+     *         <code>null</code> if there's no maximum
+     */
+    public LocalTime getMax() {
+        return max;
+    }
+
+    /**
+     * Creates a copy of these constraints with the given maximum time.
+     *
+     * @param max
+     *            the maximum time that is allowed to be selected, or
+     *            <code>null</code> to remove any maximum constraints
+     * @return new constraints with the given maximum time
+     */
+    public TimeConstraints withMax(LocalTime max) {
+        return new TimeConstraints(min, max, step, required, locale);
+    }
+
+    /**
+     * Gets the step.
+     *
+     * @return the step, or {@code null} to use the default step of the time
+     *         picker
+     * @see TimePicker#setStep(Duration)
+     */
+    public Duration getStep() {
+        return step;
+    }
+
+    /**
+     * Creates a copy of these constraints with the given step.
+     *
+     * @param step
+     *            the step, or {@code null} to use the default step of the
+     *            time picker. Same rules apply as for
+     *            {@link TimePicker#setStep(Duration)}.
+     * @return new constraints with the given step
+     * @throws IllegalArgumentException
+     *             if the step is not valid for a time picker
+     */
+    public TimeConstraints withStep(Duration step) {
+        if (step != null) {
+            checkStep(step);
+        }
+        return new TimeConstraints(min, max, step, required, locale);
+    }
+
+    /**
+     * Gets whether a value is required.
+     *
+     * @return {@code true} if the value is required, {@code false} otherwise
+     */
+    public boolean isRequired() {
+        return required;
+    }
+
+    /**
+     * Creates a copy of these constraints with the given required state.
+     *
+     * @param required
+     *            {@code true} if the value is required, {@code false}
+     *            otherwise
+     * @return new constraints with the given required state
+     */
+    public TimeConstraints withRequired(boolean required) {
+        return new TimeConstraints(min, max, step, required, locale);
+    }
+
+    /**
+     * Gets the locale.
+     *
+     * @return the locale, or {@code null} if the time picker should use its
+     *         default locale
+     * @see TimePicker#setLocale(Locale)
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * Creates a copy of these constraints with the given locale.
+     *
+     * @param locale
+     *            the locale, or {@code null} if the time picker should use its
+     *            default locale. Same rules apply as for
+     *            {@link TimePicker#setLocale(Locale)}.
+     * @return new constraints with the given locale
+     * @throws UnsupportedOperationException
+     *             if the locale has no language
+     */
+    public TimeConstraints withLocale(Locale locale) {
+        if (locale != null) {
+            checkLocale(locale);
+        }
+        return new TimeConstraints(min, max, step, required, locale);
+    }
+
+    /**
+     * Checks that the step is larger than 0 milliseconds and divides a day or
+     * an hour evenly.
+     *
+     * @param step
+     *            the step to check, not {@code null}
+     * @throws IllegalArgumentException
+     *             if the step is not valid
+     */
+    static void checkStep(Duration step) {
+        long stepAsMilliseconds = step.getSeconds() * 1000
+                + (long) (step.getNano() / 1E6);
+        if (step.isNegative() || stepAsMilliseconds == 0) {
+            throw new IllegalArgumentException(
+                    "Step cannot be negative and must be larger than 0 milliseconds");
+        }
+
+        if (MILLISECONDS_IN_A_DAY % stepAsMilliseconds != 0
+                && MILLISECONDS_IN_AN_HOUR % stepAsMilliseconds != 0) {
+            throw new IllegalArgumentException("Given step " + step.toString()
+                    + " does not divide evenly a day or an hour.");
+        }
+    }
+
+    /**
+     * Checks that the locale has the language, which the browser needs for
+     * formatting the time.
+     *
+     * @param locale
+     *            the locale to check, not {@code null}
+     * @throws UnsupportedOperationException
+     *             if the locale has no language
+     */
+    static void checkLocale(Locale locale) {
+        if (locale.getLanguage().isEmpty()) {
+            throw new UnsupportedOperationException("Given Locale "
+                    + locale.getDisplayName()
+                    + " is not supported by time picker because it is missing the language information.");
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof TimeConstraints)) {
+            return false;
+        }
+        TimeConstraints other = (TimeConstraints) obj;
+        return required == other.required && Objects.equals(min, other.min)
+                && Objects.equals(max, other.max)
+                && Objects.equals(step, other.step)
+                && Objects.equals(locale, other.locale);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(min, max, step, required, locale);
+    }
+
+    @Override
+    public String toString() {
+        return "TimeConstraints[min=" + min + ", max=" + max + ", step="
+                + step + ", required=" + required + ", locale=" + locale
+                + "]";
+    }
+}
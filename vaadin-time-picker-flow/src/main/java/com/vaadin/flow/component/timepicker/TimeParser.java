@@ -0,0 +1,96 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import java.time.LocalTime;
+
+/**
+ * Parser for the time strings the {@code vaadin-time-picker} web component
+ * uses in its {@code value} property.
+ * <p>
+ * The accepted format is {@code hh:mm[:ss[.fff]]} with 1-9 fraction digits,
+ * which covers both what the web component sends and what
+ * {@link LocalTime#toString()} produces. Unlike {@link LocalTime#parse}, an
+ * invalid string does not throw but makes {@link #parse(String)} return
+ * {@code null}.
+ *
+ * @author Vaadin Ltd
+ */
+final class TimeParser {
+
+    private static final int MAX_LENGTH = "hh:mm:ss.nnnnnnnnn".length();
+
+    private TimeParser() {
+        // utility class should not be instantiated
+    }
+
+    /**
+     * Parses the given time string.
+     *
+     * @param value
+     *            the string to parse, not {@code null}
+     * @return the parsed time, or {@code null} if the string is not a valid
+     *         time
+     */
+    static LocalTime parse(String value) {
+        int length = value.length();
+        if (length != 5 && (length < 8 || length == 9
+                || length > MAX_LENGTH)) {
+            return null;
+        }
+        int hours = parseTwoDigits(value, 0);
+        int minutes = parseTwoDigits(value, 3);
+        if (hours > 23 || value.charAt(2) != ':' || minutes > 59) {
+            return null;
+        }
+        if (length == 5) {
+            return LocalTime.of(hours, minutes);
+        }
+        int seconds = parseTwoDigits(value, 6);
+        if (value.charAt(5) != ':' || seconds > 59) {
+            return null;
+        }
+        if (length == 8) {
+            return LocalTime.of(hours, minutes, seconds);
+        }
+        if (value.charAt(8) != '.') {
+            return null;
+        }
+        int nanos = 0;
+        for (int i = 9; i < MAX_LENGTH; i++) {
+            int digit = i < length ? digit(value.charAt(i)) : 0;
+            if (digit < 0) {
+                return null;
+            }
+            nanos = nanos * 10 + digit;
+        }
+        return LocalTime.of(hours, minutes, seconds, nanos);
+    }
+
+    /**
+     * Returns the value of the two digits at the given index, or a value
+     * larger than any time field if they are not digits.
+     */
+    private static int parseTwoDigits(String value, int index) {
+        int tens = digit(value.charAt(index));
+        int ones = digit(value.charAt(index + 1));
+        return tens < 0 || ones < 0 ? Integer.MAX_VALUE : tens * 10 + ones;
+    }
+
+    private static int digit(char c) {
+        return c >= '0' && c <= '9' ? c - '0' : -1;
+    }
+}
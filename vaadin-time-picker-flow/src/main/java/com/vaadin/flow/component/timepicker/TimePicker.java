@@ -15,26 +15,44 @@
  */
 package com.vaadin.flow.component.timepicker;
 
+import java.io.Serializable;
 import java.time.Duration;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentEventListener;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.HasEnabled;
 import com.vaadin.flow.component.HasSize;
 import com.vaadin.flow.component.HasValidation;
 import com.vaadin.flow.component.HasValue;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.dependency.JsModule;
-import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.component.timepicker.TimePickerMetricsRecorder.Timing;
+import com.vaadin.flow.data.value.HasValueChangeMode;
+import com.vaadin.flow.data.value.ValueChangeMode;
+import com.vaadin.flow.dom.PropertyChangeEvent;
 import com.vaadin.flow.function.SerializableFunction;
 import com.vaadin.flow.shared.Registration;
 
+import elemental.json.JsonArray;
+import elemental.json.JsonType;
+import elemental.json.JsonValue;
+
 /**
  * An input component for selecting time of day, based on
  * {@code vaadin-time-picker} web component.
@@ -43,26 +61,70 @@ import com.vaadin.flow.shared.Registration;
  */
 @JsModule("./timepickerConnector.js")
 public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
-        implements HasSize, HasValidation, HasEnabled {
+        implements HasSize, HasValidation, HasEnabled, HasValueChangeMode {
+
+    /**
+     * Listener for value changes with the values as milliseconds of day.
+     *
+     * @see TimePicker#addMillisOfDayChangeListener(MillisOfDayChangeListener)
+     */
+    @FunctionalInterface
+    public interface MillisOfDayChangeListener extends Serializable {
+
+        /**
+         * Invoked when the value changes.
+         *
+         * @param oldMillisOfDay
+         *            the old value as milliseconds of day, or
+         *            {@link TimePicker#NO_MILLIS_OF_DAY} if it was empty
+         * @param millisOfDay
+         *            the new value as milliseconds of day, or
+         *            {@link TimePicker#NO_MILLIS_OF_DAY} if it is empty
+         * @param fromClient
+         *            {@code true} if the change originates from the client
+         */
+        void millisOfDayChanged(int oldMillisOfDay, int millisOfDay,
+                boolean fromClient);
+    }
 
     private static final SerializableFunction<String, LocalTime> PARSER = valueFromClient -> {
-        return valueFromClient == null || valueFromClient.isEmpty() ? null
-                : LocalTime.parse(valueFromClient);
+        return parseValue(valueFromClient);
     };
 
     private static final SerializableFunction<LocalTime, String> FORMATTER = valueFromModel -> {
         return valueFromModel == null ? "" : valueFromModel.toString();
     };
 
-    private static final long MILLISECONDS_IN_A_DAY = 86400000L;
-    private static final long MILLISECONDS_IN_AN_HOUR = 3600000L;
+    /**
+     * The milliseconds of day of an empty value.
+     *
+     * @see #getMillisOfDay()
+     */
+    public static final int NO_MILLIS_OF_DAY = -1;
 
-    private Locale locale;
-    private transient DateTimeFormatter dateTimeFormatter;
+    private static final int MILLISECONDS_IN_A_DAY = 86400000;
+    private static final int NANOS_IN_A_MILLISECOND = 1000000;
 
-    private LocalTime max;
-    private LocalTime min;
-    private boolean required;
+    private TimeConstraints constraints = TimeConstraints.NONE;
+    // the locale set explicitly, used when the constraints have no locale
+    private Locale explicitLocale;
+    // the locale of the UI, used when there is no other locale
+    private Locale uiLocale;
+    private AllowedTimes allowedTimes;
+    private TimeAvailability availability;
+    private Registration availabilityRegistration;
+    /*
+     * The version of the availability when the time picker was detached, or
+     * -1. The client side element, when kept, has the ranges of that version.
+     */
+    private int detachedAvailabilityVersion = -1;
+    private ConnectorCommandQueue connectorCommands;
+    // the id of the UI with the connector in the client side element, or -1
+    private int connectorUiId = -1;
+    private ValueChangeMode currentMode = ValueChangeMode.EAGER;
+    private int valueChangeTimeout = DEFAULT_CHANGE_TIMEOUT;
+    // whether a value fetched from the client is being set
+    private boolean settingFetchedValue;
 
     /**
      * Default constructor.
@@ -96,12 +158,47 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
         super(time, null, String.class, PARSER, FORMATTER,
                 isInitialValueOptional);
 
-        // workaround for https://github.com/vaadin/flow/issues/3496
-        setInvalid(false);
-
         addValueChangeListener(e -> validate());
+        getElement().addPropertyChangeListener("value",
+                this::onValuePropertyChange);
+    }
+
+    private static LocalTime parseValue(String value) {
+        return value == null || value.isEmpty() ? null
+                : TimeParser.parse(value);
+    }
+
+    /*
+     * Runs after the value property has been converted to the model value.
+     * Input that can't be parsed is an empty model value, so the model value
+     * doesn't change between empty and bad input, and no value change event
+     * triggers the validation. Only the changes from the client are reported
+     * in the metrics.
+     */
+    private void onValuePropertyChange(PropertyChangeEvent event) {
+        boolean fromClient = event.isUserOriginated();
+        UI ui = getUI().orElse(null);
+        Timing timing = fromClient ? TimePickerMetricsRecorder.start(ui)
+                : null;
+        if (fromClient && hasBadInput(getValue())) {
+            TimePickerMetricsRecorder.count(TimePickerOperation.PARSE_FAILURE,
+                    ui, this);
+        }
+        if (getValue() == null
+                && parseValue((String) event.getOldValue()) == null) {
+            validate();
+        }
+        TimePickerMetricsRecorder.record(
+                TimePickerOperation.CLIENT_VALUE_SYNC, ui, this, timing);
+    }
 
-        FieldValidationUtil.disableClientValidation(this);
+    /*
+     * The value property of an empty model value is empty, unless the client
+     * has sent input that can't be parsed.
+     */
+    private boolean hasBadInput(LocalTime value) {
+        return value == null
+                && !getElement().getProperty("value", "").isEmpty();
     }
 
     /**
@@ -153,14 +250,77 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
     // the platform.
     @Override
     public void setValue(LocalTime value) {
-        if (value == null) {
-            super.setValue(null);
+        if (value == null || value.getNano() % NANOS_IN_A_MILLISECOND == 0) {
+            super.setValue(value);
         } else {
             LocalTime truncatedValue = value.truncatedTo(ChronoUnit.MILLIS);
             super.setValue(truncatedValue);
         }
     }
 
+    /**
+     * Gets the value as milliseconds of day, without creating any objects.
+     *
+     * @return the value as milliseconds of day, or {@link #NO_MILLIS_OF_DAY}
+     *         if the value is empty
+     * @see #getValue()
+     */
+    public int getMillisOfDay() {
+        return toMillisOfDay(getValue());
+    }
+
+    /**
+     * Sets the value as milliseconds of day. If the value doesn't change, no
+     * objects are created.
+     *
+     * @param millisOfDay
+     *            the value as milliseconds of day, from {@code 0} to
+     *            {@code 86399999}, or {@link #NO_MILLIS_OF_DAY} to clear the
+     *            value
+     * @throws IllegalArgumentException
+     *             if the milliseconds are out of range
+     * @see #setValue(LocalTime)
+     */
+    public void setMillisOfDay(int millisOfDay) {
+        if (millisOfDay < NO_MILLIS_OF_DAY
+                || millisOfDay >= MILLISECONDS_IN_A_DAY) {
+            throw new IllegalArgumentException("Milliseconds of day "
+                    + millisOfDay + " must be from 0 to "
+                    + (MILLISECONDS_IN_A_DAY - 1) + " or " + NO_MILLIS_OF_DAY);
+        }
+        if (millisOfDay == getMillisOfDay()) {
+            return;
+        }
+        // already at millisecond precision, no need to truncate
+        super.setValue(millisOfDay == NO_MILLIS_OF_DAY ? null
+                : LocalTime.ofNanoOfDay(
+                        millisOfDay * (long) NANOS_IN_A_MILLISECOND));
+    }
+
+    /**
+     * Adds a listener for value changes that gets the values as milliseconds
+     * of day, see {@link #getMillisOfDay()}.
+     *
+     * @param listener
+     *            the listener to add, not {@code null}
+     * @return a registration for removing the listener
+     * @see #addValueChangeListener(HasValue.ValueChangeListener)
+     */
+    public Registration addMillisOfDayChangeListener(
+            MillisOfDayChangeListener listener) {
+        Objects.requireNonNull(listener, "Listener cannot be null");
+        return addValueChangeListener(
+                event -> listener.millisOfDayChanged(
+                        toMillisOfDay(event.getOldValue()),
+                        toMillisOfDay(event.getValue()),
+                        event.isFromClient()));
+    }
+
+    private static int toMillisOfDay(LocalTime time) {
+        return time == null ? NO_MILLIS_OF_DAY
+                : (int) (time.toNanoOfDay() / NANOS_IN_A_MILLISECOND);
+    }
+
     /**
      * Gets the label of the time picker.
      *
@@ -187,7 +347,16 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
 
     @Override
     public void setInvalid(boolean invalid) {
-        super.setInvalid(invalid);
+        // a missing property is false, it's written on attach, so validating
+        // an unattached picker doesn't create it. Only actual changes are
+        // reported in the metrics.
+        if (invalid != isInvalid()) {
+            UI ui = getUI().orElse(null);
+            Timing timing = TimePickerMetricsRecorder.start(ui);
+            super.setInvalid(invalid);
+            TimePickerMetricsRecorder.record(
+                    TimePickerOperation.INVALID_STATE_CHANGE, ui, this, timing);
+        }
     }
 
     /**
@@ -205,16 +374,29 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
     /**
      * Performs a server-side validation of the given value. This is needed
      * because it is possible to circumvent the client side validation
-     * constraints using browser development tools.
+     * constraints using browser development tools. A value from the client
+     * that could not be parsed is always invalid.
      */
     private boolean isInvalid(LocalTime value) {
-        final boolean isRequiredButEmpty = required
+        if (hasBadInput(value)) {
+            return true;
+        }
+        // read the possibly shared constraints once
+        final TimeConstraints constraints = this.constraints;
+        final LocalTime max = constraints.getMax();
+        final LocalTime min = constraints.getMin();
+        final boolean isRequiredButEmpty = constraints.isRequired()
                 && Objects.equals(getEmptyValue(), value);
         final boolean isGreaterThanMax = value != null && max != null
                 && value.isAfter(max);
         final boolean isSmallerThenMin = value != null && min != null
                 && value.isBefore(min);
-        return isRequiredButEmpty || isGreaterThanMax || isSmallerThenMin;
+        final boolean isNotAllowed = value != null
+                && (allowedTimes != null && !allowedTimes.contains(value)
+                        || availability != null
+                                && availability.isBlocked(value));
+        return isRequiredButEmpty || isGreaterThanMax || isSmallerThenMin
+                || isNotAllowed;
     }
 
     @Override
@@ -238,13 +420,13 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
     @Override
     public void setRequired(boolean required) {
         super.setRequired(required);
-        this.required = required;
+        constraints = constraints.withRequired(required);
     }
 
     @Override
     public void setRequiredIndicatorVisible(boolean requiredIndicatorVisible) {
         super.setRequiredIndicatorVisible(requiredIndicatorVisible);
-        this.required = requiredIndicatorVisible;
+        constraints = constraints.withRequired(requiredIndicatorVisible);
     }
 
     /**
@@ -285,20 +467,8 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
      */
     public void setStep(Duration step) {
         Objects.requireNonNull(step, "Step cannot be null");
-        long stepAsMilliseconds = step.getSeconds() * 1000
-                + (long) (step.getNano() / 1E6);
-        if (step.isNegative() || stepAsMilliseconds == 0) {
-            throw new IllegalArgumentException(
-                    "Step cannot be negative and must be larger than 0 milliseconds");
-        }
-
-        if (MILLISECONDS_IN_A_DAY % stepAsMilliseconds != 0
-                && MILLISECONDS_IN_AN_HOUR % stepAsMilliseconds != 0) {
-            throw new IllegalArgumentException("Given step " + step.toString()
-                    + " does not divide evenly a day or an hour.");
-        }
-
-        super.setStep(step.getSeconds() + (step.getNano() / 1E9));
+        constraints = constraints.withStep(step);
+        writeStep(step);
     }
 
     /**
@@ -319,6 +489,156 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
         return Duration.ofNanos((long) (getStepDouble() * 1E9));
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default value is {@link ValueChangeMode#EAGER}.
+     */
+    @Override
+    public ValueChangeMode getValueChangeMode() {
+        return currentMode;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * With a {@code null} mode, the value is buffered on the client, eg. for a
+     * large form that only needs the values when it is saved. The values of
+     * many time pickers can then be fetched with a single round trip using
+     * {@link #fetchValues(Collection)}.
+     *
+     * @param valueChangeMode
+     *            the new value change mode, or {@code null} to not synchronize
+     *            the value automatically
+     */
+    @Override
+    public void setValueChangeMode(ValueChangeMode valueChangeMode) {
+        currentMode = valueChangeMode;
+        setSynchronizedEvent(
+                ValueChangeMode.eventForMode(valueChangeMode, "value-changed"));
+        applyChangeTimeout();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default value is {@link HasValueChangeMode#DEFAULT_CHANGE_TIMEOUT}.
+     */
+    @Override
+    public void setValueChangeTimeout(int valueChangeTimeout) {
+        this.valueChangeTimeout = valueChangeTimeout;
+        applyChangeTimeout();
+    }
+
+    @Override
+    public int getValueChangeTimeout() {
+        return valueChangeTimeout;
+    }
+
+    private void applyChangeTimeout() {
+        ValueChangeMode.applyChangeTimeout(currentMode, valueChangeTimeout,
+                getSynchronizationRegistration());
+    }
+
+    /**
+     * Fetches the current values of the given time pickers from the client
+     * with a single JavaScript call, eg. for time pickers that buffer the
+     * value on the client, see {@link #setValueChangeMode(ValueChangeMode)}.
+     * <p>
+     * The fetched values are set to the time pickers as values from the
+     * client, so value change events are fired for the changed values. Each
+     * time picker is then validated on the server, and also marked invalid if
+     * the input is not valid on the client, eg. when it has text that can't
+     * be parsed. The time pickers that are not attached, or no longer on the
+     * client, keep their values, which are also included in the result.
+     *
+     * @param timePickers
+     *            the time pickers to fetch the values of, all attached to the
+     *            same UI, not {@code null}
+     * @return a future that is completed with the values of the time pickers,
+     *         in the iteration order of the collection, when the values have
+     *         been fetched and set
+     * @throws IllegalArgumentException
+     *             if the time pickers are attached to different UIs
+     */
+    public static CompletableFuture<Map<TimePicker, LocalTime>> fetchValues(
+            Collection<TimePicker> timePickers) {
+        Objects.requireNonNull(timePickers, "Time pickers cannot be null");
+        Map<TimePicker, LocalTime> values = new LinkedHashMap<>();
+        List<TimePicker> attached = new ArrayList<>();
+        UI ui = null;
+        for (TimePicker timePicker : timePickers) {
+            values.put(timePicker, timePicker.getValue());
+            UI pickerUi = timePicker.getUI().orElse(null);
+            if (pickerUi == null) {
+                continue;
+            }
+            if (ui != null && ui != pickerUi) {
+                throw new IllegalArgumentException(
+                        "All the time pickers must be attached to the same UI");
+            }
+            ui = pickerUi;
+            attached.add(timePicker);
+        }
+        CompletableFuture<Map<TimePicker, LocalTime>> future = new CompletableFuture<>();
+        if (ui == null) {
+            future.complete(values);
+            return future;
+        }
+
+        Timing timing = TimePickerMetricsRecorder.start(ui);
+        StringBuilder expression = new StringBuilder("return [");
+        for (int i = 0; i < attached.size(); i++) {
+            expression.append(i == 0 ? "$" : ", $").append(i);
+        }
+        // an element might have been removed on the client in the meantime
+        expression.append("].map(function (timepicker) {")
+                .append(" return timepicker ? [timepicker.value || '',")
+                .append(" timepicker.checkValidity()] : null; })");
+        ui.getPage()
+                .executeJs(expression.toString(),
+                        attached.stream().map(Component::getElement)
+                                .toArray(Serializable[]::new))
+                .then(JsonArray.class, result -> {
+                    for (int i = 0; i < attached.size(); i++) {
+                        JsonValue entry = result.get(i);
+                        if (entry == null || entry.getType() != JsonType.ARRAY) {
+                            // not on the client, keep the current value
+                            continue;
+                        }
+                        TimePicker timePicker = attached.get(i);
+                        JsonArray fetched = (JsonArray) entry;
+                        timePicker.setFetchedValue(fetched.getString(0),
+                                fetched.getBoolean(1));
+                        values.put(timePicker, timePicker.getValue());
+                    }
+                    future.complete(values);
+                }, error -> future.completeExceptionally(
+                        new IllegalStateException(
+                                "Fetching the values failed: " + error)));
+        TimePickerMetricsRecorder.record(
+                TimePickerOperation.JAVASCRIPT_EXECUTION, ui, null, timing);
+        return future;
+    }
+
+    private void setFetchedValue(String valueFromClient, boolean clientValid) {
+        // the property is kept in sync with the client, and the change is
+        // converted to the model value like a value synchronized from the
+        // client
+        settingFetchedValue = true;
+        try {
+            getElement().setProperty("value", valueFromClient);
+        } finally {
+            settingFetchedValue = false;
+        }
+        setInvalid(!clientValid || isInvalid(getValue()));
+    }
+
+    @Override
+    protected void setModelValue(LocalTime newModelValue, boolean fromClient) {
+        super.setModelValue(newModelValue, fromClient || settingFetchedValue);
+    }
+
     @Override
     public Registration addInvalidChangeListener(
             ComponentEventListener<InvalidChangeEvent<TimePicker>> listener) {
@@ -332,24 +652,96 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
      */
     @Override
     protected void validate() {
-        setInvalid(isInvalid(getValue()));
+        UI ui = getUI().orElse(null);
+        Timing timing = TimePickerMetricsRecorder.start(ui);
+        boolean invalid = isInvalid(getValue());
+        TimePickerMetricsRecorder.record(TimePickerOperation.VALIDATION, ui,
+                this, timing);
+        if (invalid) {
+            TimePickerMetricsRecorder
+                    .count(TimePickerOperation.VALIDATION_FAILURE, ui, this);
+        }
+        setInvalid(invalid);
     }
 
     @Override
     protected void onAttach(AttachEvent attachEvent) {
         super.onAttach(attachEvent);
-        if (getLocale() == null) {
-            setLocale(attachEvent.getUI().getLocale());
+        UI ui = attachEvent.getUI();
+        Timing timing = TimePickerMetricsRecorder.start(ui);
+        boolean localeChanged = false;
+        if (constraints.getLocale() == null && explicitLocale == null) {
+            Locale locale = ui.getLocale();
+            // the UI locale might not have a language, which is not supported
+            if (locale.getLanguage().isEmpty()) {
+                locale = resolveSupportedLocale(locale);
+            }
+            localeChanged = !locale.equals(uiLocale);
+            uiLocale = locale;
+        }
+        if (!getElement().hasProperty("invalid")) {
+            // workaround for https://github.com/vaadin/flow/issues/3496,
+            // deferred to the first attach to keep unattached pickers light
+            super.setInvalid(false);
+        }
+        if (connectorUiId != ui.getUIId()) {
+            // the client side element is new, so it has neither the connector
+            // nor the state set through it
+            connectorUiId = ui.getUIId();
+            detachedAvailabilityVersion = -1;
+            initConnector(ui);
+            restoreClientState();
+        } else if (localeChanged) {
+            writeLocale(uiLocale);
+        }
+        // unsubscribed on detach
+        if (availability != null) {
+            subscribeAvailability(ui);
+        }
+        detachedAvailabilityVersion = -1;
+        TimePickerMetricsRecorder.record(TimePickerOperation.ATTACH, ui, this,
+                timing);
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        UI ui = detachEvent.getUI();
+        Timing timing = TimePickerMetricsRecorder.start(ui);
+        // subscribed again on attach, the UI might be closed before the
+        // next round trip
+        if (availability != null && connectorUiId == ui.getUIId()) {
+            detachedAvailabilityVersion = availability.getVersion();
+        }
+        unsubscribeAvailability();
+        // the client side element, and the connector with it, is kept only if
+        // the time picker is attached again in the same round trip
+        ui.beforeClientResponse(ui, context -> {
+            if (getUI().orElse(null) != ui
+                    && connectorUiId == ui.getUIId()) {
+                connectorUiId = -1;
+            }
+        });
+        TimePickerMetricsRecorder.record(TimePickerOperation.DETACH, ui, this,
+                timing);
+        super.onDetach(detachEvent);
+    }
+
+    private void restoreClientState() {
+        Locale locale = getLocale();
+        if (locale != null) {
+            writeLocale(locale);
+        }
+        if (allowedTimes != null) {
+            writeAllowedTimes();
         }
-        initConnector();
     }
 
-    private void initConnector() {
+    private void initConnector(UI ui) {
         // can't run this with getElement().executeJavaScript(...) since then
-        // setLocale might be called before this causing client side error
-        runBeforeClientResponse(ui -> ui.getPage().executeJs(
-                "window.Vaadin.Flow.timepickerConnector.initLazy($0)",
-                getElement()));
+        // setLocale might be called before this causing client side error.
+        // The inits of all the pickers attached during the round trip are
+        // sent in one call, which also disables the client side validation.
+        ConnectorInitBatch.add(ui, this);
     }
 
     /**
@@ -362,7 +754,9 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
      * <p>
      * The time formatting is done in the browser using the <a href=
      * "https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/Date/toLocaleTimeString">Date.toLocaleTimeString()</a>
-     * function.
+     * function. Whether a 12 or 24 hour clock is used is determined on the
+     * server from the localized time pattern of the JDK, the AM/PM strings and
+     * the separator by the browser.
      * <p>
      * If for some reason the browser doesn't support the given locale, the
      * en-US locale is used.
@@ -379,38 +773,46 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
      */
     public void setLocale(Locale locale) {
         Objects.requireNonNull(locale, "Locale must not be null.");
-        if (locale.getLanguage().isEmpty()) {
-            throw new UnsupportedOperationException("Given Locale "
-                    + locale.getDisplayName()
-                    + " is not supported by time picker because it is missing the language information.");
-        }
+        TimeConstraints.checkLocale(locale);
+
+        UI ui = getUI().orElse(null);
+        Timing timing = TimePickerMetricsRecorder.start(ui);
+        explicitLocale = locale;
+        constraints = constraints.withLocale(locale);
+        writeLocale(locale);
+        TimePickerMetricsRecorder.record(TimePickerOperation.SET_LOCALE, ui,
+                this, timing);
+    }
 
-        this.locale = locale;
-        this.dateTimeFormatter = null;
-        // we could support script & variant, but that requires more work on
-        // client side to detect the different
-        // number characters for other scripts (current only Arabic there)
-        StringBuilder bcp47LanguageTag = new StringBuilder(
-                locale.getLanguage());
-        if (!locale.getCountry().isEmpty()) {
-            bcp47LanguageTag.append("-").append(locale.getCountry());
+    private void writeLocale(Locale locale) {
+        if (connectorUiId == -1) {
+            // sent with the rest of the client state when attached
+            return;
         }
-        runBeforeClientResponse(ui -> getElement().callJsFunction(
-                "$connector.setLocale", bcp47LanguageTag.toString()));
+        // only the language and the country are sent, see LocaleTimeFormat.
+        // The digits of any script are parsed on the client side.
+        LocaleTimeFormat timeFormat = LocaleTimeFormat.of(locale);
+        getConnectorCommands().set("setLocale", timeFormat.getLanguageTag(),
+                timeFormat.toJson());
     }
 
     /**
      * Gets the Locale for this time picker.
      * <p>
      * By default, the locale is {@code null} until the component is attached to
-     * an UI, and then locale is set to {@link UI#getLocale()}, unless
-     * {@link #setLocale(Locale)} has been explicitly called before that.
+     * an UI, and then locale is the {@link UI#getLocale()} of the UI it was
+     * last attached to, unless {@link #setLocale(Locale)} has been explicitly
+     * called or the constraints have a locale.
      *
      * @return the locale used for this time picker
      */
     @Override
     public Locale getLocale() {
-        return locale;
+        Locale locale = constraints.getLocale();
+        if (locale == null) {
+            locale = explicitLocale;
+        }
+        return locale != null ? locale : uiLocale;
     }
 
     /**
@@ -426,7 +828,7 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
     @Override
     @Deprecated
     public void setMin(String min) {
-        this.min = parse(min, initializeAndReturnFormatter());
+        constraints = constraints.withMin(parse(min));
         super.setMin(min);
     }
 
@@ -439,7 +841,7 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
      *            <code>null</code> to remove any minimum constraints
      */
     public void setMinTime(LocalTime min) {
-        this.min = min;
+        constraints = constraints.withMin(min);
         super.setMin(format(min));
     }
 
@@ -465,7 +867,7 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
      *         <code>null</code> if there's no minimum
      */
     public LocalTime getMinTime() {
-        return this.min;
+        return constraints.getMin();
     }
 
     /**
@@ -481,7 +883,7 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
     @Override
     @Deprecated
     public void setMax(String max) {
-        this.max = parse(max, initializeAndReturnFormatter());
+        constraints = constraints.withMax(parse(max));
         super.setMax(max);
     }
 
@@ -494,7 +896,7 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
      *            <code>null</code> to remove any maximum constraints
      */
     public void setMaxTime(LocalTime max) {
-        this.max = max;
+        constraints = constraints.withMax(max);
         super.setMax(format(max));
     }
 
@@ -520,7 +922,235 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
      *         <code>null</code> if there's no maximum
      */
     public LocalTime getMaxTime() {
-        return this.max;
+        return constraints.getMax();
+    }
+
+    /**
+     * Sets the constraints of this time picker: the minimum and maximum time,
+     * the step, whether a value is required and the locale. The constraints
+     * replace any values set with the individual setters, such as
+     * {@link #setMinTime(LocalTime)}, and the individual setters in turn
+     * update the constraints of this time picker only.
+     * <p>
+     * The constraints are immutable, so the same instance can be shared by
+     * many time pickers. Only the constraints that differ from the current
+     * ones are sent to the client, and the value is validated against the
+     * shared instance directly. A {@code null} locale in the constraints keeps
+     * the locale currently used by the time picker, see
+     * {@link #setLocale(Locale)}.
+     *
+     * @param constraints
+     *            the constraints, not {@code null}
+     * @see TimeConstraints#NONE
+     */
+    public void setConstraints(TimeConstraints constraints) {
+        applyConstraints(constraints);
+        validate();
+    }
+
+    /**
+     * Gets the constraints of this time picker.
+     *
+     * @return the constraints, not {@code null}
+     * @see #setConstraints(TimeConstraints)
+     */
+    public TimeConstraints getConstraints() {
+        return constraints;
+    }
+
+    /**
+     * Rebinds this time picker to a new value and new constraints in one go,
+     * eg. when a single time picker is used as the editor for the rows of a
+     * grid. Only the constraints that differ from the current ones are
+     * updated, so only the changed properties are sent to the client. The
+     * value is validated once against the new constraints.
+     * <p>
+     * The value is set with {@link #setValue(LocalTime)}, so a value change
+     * event is fired if the value changes.
+     *
+     * @param value
+     *            the new value, or {@code null} to clear the value
+     * @param constraints
+     *            the new constraints, not {@code null}
+     * @see #setConstraints(TimeConstraints)
+     */
+    public void rebind(LocalTime value, TimeConstraints constraints) {
+        LocalTime oldValue = getValue();
+        applyConstraints(constraints);
+        setValue(value);
+        if (Objects.equals(oldValue, getValue())) {
+            // a changed value is validated by the value change listener
+            validate();
+        }
+    }
+
+    private void applyConstraints(TimeConstraints constraints) {
+        Objects.requireNonNull(constraints, "Constraints cannot be null");
+        TimeConstraints old = this.constraints;
+        if (old == constraints) {
+            return;
+        }
+        if (!Objects.equals(old.getMin(), constraints.getMin())) {
+            super.setMin(format(constraints.getMin()));
+        }
+        if (!Objects.equals(old.getMax(), constraints.getMax())) {
+            super.setMax(format(constraints.getMax()));
+        }
+        Duration step = constraints.getStep();
+        if (step == null) {
+            if (getElement().hasProperty("step")) {
+                getElement().removeProperty("step");
+            }
+        } else {
+            writeStep(step);
+        }
+        if (old.isRequired() != constraints.isRequired()) {
+            super.setRequired(constraints.isRequired());
+        }
+        Locale oldLocale = getLocale();
+        if (constraints.getLocale() == null && old.getLocale() != null) {
+            // keep the locale the client already uses, it's still explicit
+            explicitLocale = old.getLocale();
+        }
+        this.constraints = constraints;
+        Locale locale = getLocale();
+        if (locale != null && !locale.equals(oldLocale)) {
+            writeLocale(locale);
+        }
+    }
+
+    private void writeStep(Duration step) {
+        super.setStep(step.getSeconds() + (step.getNano() / 1E9));
+    }
+
+    /**
+     * Sets the times that are allowed to be selected in the time picker, in
+     * addition to the minimum and maximum time. Other times are hidden from
+     * the dropdown and make the value invalid.
+     * <p>
+     * The allowed times must be on the grid of the current step of the time
+     * picker, which must be a whole number of seconds. The times are stored as
+     * one bit per step, so checking a value is constant time, and they are
+     * sent to the client as run lengths of consecutive slots, so the transfer
+     * size depends on how fragmented the times are, not on how many there
+     * are. The grid is not changed by later changes of the step. The current
+     * value is validated against the new allowed times.
+     *
+     * @param allowedTimes
+     *            the times that are allowed to be selected, or {@code null}
+     *            to allow all times
+     * @throws IllegalArgumentException
+     *             if the step is less than a second or not a whole number of
+     *             seconds, or if a time is not on the grid of the step
+     * @see #setStep(Duration)
+     */
+    public void setAllowedTimes(Collection<LocalTime> allowedTimes) {
+        this.allowedTimes = allowedTimes == null ? null
+                : new AllowedTimes(getStep(), allowedTimes);
+        writeAllowedTimes();
+        validate();
+    }
+
+    private void writeAllowedTimes() {
+        if (connectorUiId == -1) {
+            // sent with the rest of the client state when attached
+            return;
+        }
+        if (allowedTimes == null) {
+            getConnectorCommands().set("setAllowedTimes");
+        } else {
+            getConnectorCommands().set("setAllowedTimes",
+                    allowedTimes.getStepSeconds(), allowedTimes.toRuns());
+        }
+    }
+
+    /**
+     * Gets the times that are allowed to be selected in the time picker.
+     *
+     * @return an unmodifiable sorted set of the allowed times, or {@code null}
+     *         if all times are allowed
+     * @see #setAllowedTimes(Collection)
+     */
+    public SortedSet<LocalTime> getAllowedTimes() {
+        return allowedTimes == null ? null : allowedTimes.toTimes();
+    }
+
+    /**
+     * Sets the availability of the time picker. Times that are blocked in the
+     * availability are hidden from the dropdown and make the value invalid.
+     * <p>
+     * The availability can be shared by many time pickers and updated from a
+     * background thread. While the time picker is attached, the changes are
+     * sent to the client as they are made, using {@link UI#access}, so server
+     * push is needed to see them without waiting for the next round trip. The
+     * value is validated again after each change.
+     *
+     * @param availability
+     *            the availability, or {@code null} to not block any times
+     */
+    public void setAvailability(TimeAvailability availability) {
+        unsubscribeAvailability();
+        this.availability = availability;
+        // the client side element doesn't have the new ranges
+        detachedAvailabilityVersion = -1;
+        Optional<UI> ui = getUI();
+        if (availability != null && ui.isPresent()) {
+            subscribeAvailability(ui.get());
+        } else if (availability == null && connectorUiId != -1) {
+            getConnectorCommands().set("setBlockedRanges");
+        }
+        validate();
+    }
+
+    /**
+     * Gets the availability of the time picker.
+     *
+     * @return the availability, or {@code null} if no times are blocked
+     * @see #setAvailability(TimeAvailability)
+     */
+    public TimeAvailability getAvailability() {
+        return availability;
+    }
+
+    private void subscribeAvailability(UI ui) {
+        final TimeAvailability subscribed = availability;
+        // listen before taking the snapshot, replaying a change that the
+        // snapshot already includes has no effect
+        availabilityRegistration = subscribed
+                .addRangeListener(new TimeAvailability.RangeListener() {
+                    @Override
+                    public void rangeChanged(boolean blocked, int from,
+                            int to) {
+                        try {
+                            ui.access(() -> {
+                                if (availability == subscribed) {
+                                    getConnectorCommands().add(
+                                            "updateBlockedRange", blocked,
+                                            from, to);
+                                    validate();
+                                }
+                            });
+                        } catch (UIDetachedException e) {
+                            // the UI is closed or its session has expired, so
+                            // there is nothing to update anymore
+                            subscribed.removeRangeListener(this);
+                        }
+                    }
+                });
+        // the ranges are not sent again to a client side element kept from
+        // before the detach, unless they have changed since. Changes made
+        // after adding the listener are also sent through it.
+        if (subscribed.getVersion() != detachedAvailabilityVersion) {
+            getConnectorCommands().set("setBlockedRanges",
+                    subscribed.toJson());
+        }
+    }
+
+    private void unsubscribeAvailability() {
+        if (availabilityRegistration != null) {
+            availabilityRegistration.remove();
+            availabilityRegistration = null;
+        }
     }
 
     /**
@@ -549,9 +1179,11 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
         return super.isClearButtonVisibleBoolean();
     }
 
-    private void runBeforeClientResponse(SerializableConsumer<UI> command) {
-        getElement().getNode().runWhenAttached(ui -> ui
-                .beforeClientResponse(this, context -> command.accept(ui)));
+    private ConnectorCommandQueue getConnectorCommands() {
+        if (connectorCommands == null) {
+            connectorCommands = new ConnectorCommandQueue(this);
+        }
+        return connectorCommands;
     }
 
     /**
@@ -560,7 +1192,8 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
      * <p>
      * This is a shorthand for {@link Locale#getAvailableLocales()} where all
      * locales without the {@link Locale#getLanguage()} have been filtered out,
-     * as the browser cannot localize the time for those.
+     * as the browser cannot localize the time for those. The supported locales
+     * are determined once and cached.
      *
      * @return a stream of the available locales that are supported by the time
      *         picker component
@@ -569,25 +1202,58 @@ public class TimePicker extends GeneratedVaadinTimePicker<TimePicker, LocalTime>
      * @see Locale#getLanguage()
      */
     public static Stream<Locale> getSupportedAvailableLocales() {
-        return Stream.of(Locale.getAvailableLocales())
-                .filter(locale -> !locale.getLanguage().isEmpty());
+        return SupportedLocales.get().getLocales().stream();
     }
 
-    private DateTimeFormatter initializeAndReturnFormatter() {
-        if (dateTimeFormatter == null) {
-            dateTimeFormatter = locale == null
-                    ? DateTimeFormatter.ISO_LOCAL_TIME
-                    : DateTimeFormatter.ISO_LOCAL_TIME.withLocale(locale);
-        }
-        return dateTimeFormatter;
+    /**
+     * Gets the supported available locale with the given BCP 47 language tag,
+     * eg. {@code "fi-FI"}.
+     *
+     * @param languageTag
+     *            the language tag of the locale, not {@code null}
+     * @return an optional with the supported locale, or an empty optional if
+     *         no available locale with the language tag is supported by the
+     *         time picker component
+     * @see #getSupportedAvailableLocales()
+     */
+    public static Optional<Locale> getSupportedLocale(String languageTag) {
+        Objects.requireNonNull(languageTag, "Language tag must not be null.");
+        return Optional
+                .ofNullable(SupportedLocales.get().getLocale(languageTag));
+    }
+
+    /**
+     * Resolves the supported available locale closest to the given locale,
+     * eg. for a locale of the user. The result can always be used with
+     * {@link #setLocale(Locale)}.
+     * <p>
+     * The given locale itself is returned when it is supported. Otherwise the
+     * fallback is the supported locale with the same language and country, and
+     * then the one with the same language. A locale without a language, which
+     * is not supported by {@link #setLocale(Locale)}, is resolved to a
+     * supported locale of the same country. When nothing closer is supported,
+     * {@link Locale#US} is returned, which is also the fallback of the browser.
+     * <p>
+     * The resolutions are memoized, so resolving the same locale again is a
+     * lookup.
+     *
+     * @param locale
+     *            the locale to resolve, not {@code null}
+     * @return the closest supported locale, not {@code null}
+     * @see #getSupportedAvailableLocales()
+     */
+    public static Locale resolveSupportedLocale(Locale locale) {
+        Objects.requireNonNull(locale, "Locale must not be null.");
+        return SupportedLocales.get().resolve(locale);
     }
 
     private static String format(LocalTime time) {
         return time != null ? time.toString() : null;
     }
 
-    private static LocalTime parse(String time, DateTimeFormatter formatter) {
-        return time != null ? LocalTime.parse(time, formatter) : null;
+    private static LocalTime parse(String time) {
+        // ISO_LOCAL_TIME doesn't depend on the locale
+        return time != null ? LocalTime.parse(time) : null;
     }
 
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import com.vaadin.flow.component.UI;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for an operation of a time picker. The event begins
+ * when the operation starts, so the start time and the duration of the event
+ * are those of the operation. Only loaded reflectively by
+ * {@link FlightRecorderSupport} when Flight Recorder is available.
+ *
+ * @author Vaadin Ltd
+ */
+@Name("com.vaadin.flow.component.timepicker.Operation")
+@Label("Time Picker Operation")
+@Category({ "Vaadin", "Time Picker" })
+@Description("Server side operation of a Vaadin time picker")
+final class TimePickerFlightRecorderEvent extends jdk.jfr.Event
+        implements FlightRecorderSupport.OperationEvent {
+
+    /**
+     * Creates the events, instantiated by {@link FlightRecorderSupport}.
+     */
+    static final class Factory implements FlightRecorderSupport.EventFactory {
+
+        private final EventType eventType = EventType
+                .getEventType(TimePickerFlightRecorderEvent.class);
+
+        @Override
+        public boolean isEnabled() {
+            return eventType.isEnabled();
+        }
+
+        @Override
+        public FlightRecorderSupport.OperationEvent begin() {
+            TimePickerFlightRecorderEvent event = new TimePickerFlightRecorderEvent();
+            event.begin();
+            return event;
+        }
+
+        @Override
+        public void commitInstant(TimePickerOperation operation, UI ui,
+                TimePicker timePicker) {
+            // without begin and end, the event has no duration
+            new TimePickerFlightRecorderEvent().commit(operation, ui,
+                    timePicker);
+        }
+    }
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Node Id")
+    @Description("Id of the state node of the time picker, unique in a UI")
+    private int nodeId;
+
+    @Label("Component Id")
+    private String componentId;
+
+    @Label("UI Id")
+    private int uiId;
+
+    @Override
+    public void end(TimePickerOperation operation, UI ui,
+            TimePicker timePicker) {
+        end();
+        commit(operation, ui, timePicker);
+    }
+
+    private void commit(TimePickerOperation operation, UI ui,
+            TimePicker timePicker) {
+        if (!shouldCommit()) {
+            return;
+        }
+        this.operation = operation.name();
+        uiId = ui == null ? -1 : ui.getUIId();
+        if (timePicker != null) {
+            nodeId = timePicker.getElement().getNode().getId();
+            componentId = timePicker.getId().orElse(null);
+        } else {
+            nodeId = -1;
+        }
+        commit();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+
+/**
+ * A sink for the metrics of the server side operations of time pickers, eg.
+ * an adapter to a meter registry of a monitoring library. A sink can be set
+ * globally, for all the time pickers of the application, and for the time
+ * pickers of a single UI. When both are set, both get the same operations.
+ * <p>
+ * The sinks are called in the thread doing the operation, usually while the
+ * session is locked, so they should only record the operation and return.
+ * When no sink is set, the operations are neither timed nor reported.
+ *
+ * @author Vaadin Ltd
+ * @see TimePickerOperation
+ */
+@FunctionalInterface
+public interface TimePickerMetrics extends Serializable {
+
+    /**
+     * Records an operation.
+     *
+     * @param operation
+     *            the operation, not {@code null}
+     * @param ui
+     *            the UI of the time picker, or {@code null} if the time
+     *            picker is not attached
+     * @param timePicker
+     *            the time picker, or {@code null} if the operation is done for
+     *            all the time pickers of the UI
+     * @param durationNanos
+     *            the duration of the operation in nanoseconds, or {@code 0}
+     *            for operations that are only counted
+     */
+    void record(TimePickerOperation operation, UI ui, TimePicker timePicker,
+            long durationNanos);
+
+    /**
+     * Sets the sink for the operations of all the time pickers.
+     *
+     * @param metrics
+     *            the sink, or {@code null} to remove the sink
+     */
+    static void setGlobal(TimePickerMetrics metrics) {
+        TimePickerMetricsRecorder.setGlobal(metrics);
+    }
+
+    /**
+     * Gets the sink for the operations of all the time pickers.
+     *
+     * @return the sink, or {@code null} if not set
+     */
+    static TimePickerMetrics getGlobal() {
+        return TimePickerMetricsRecorder.getGlobal();
+    }
+
+    /**
+     * Sets the sink for the operations of the time pickers of the given UI.
+     *
+     * @param ui
+     *            the UI, not {@code null}
+     * @param metrics
+     *            the sink, or {@code null} to remove the sink
+     */
+    static void setForUI(UI ui, TimePickerMetrics metrics) {
+        Objects.requireNonNull(ui, "UI cannot be null");
+        ComponentUtil.setData(ui, TimePickerMetrics.class, metrics);
+    }
+
+    /**
+     * Gets the sink for the operations of the time pickers of the given UI.
+     *
+     * @param ui
+     *            the UI, not {@code null}
+     * @return the sink, or {@code null} if not set
+     */
+    static TimePickerMetrics getForUI(UI ui) {
+        Objects.requireNonNull(ui, "UI cannot be null");
+        return ComponentUtil.getData(ui, TimePickerMetrics.class);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+
+/**
+ * Reports the operations of time pickers to the {@link TimePickerMetrics}
+ * sinks and as Flight Recorder events. The operations are timed only when
+ * there is a sink or a recording to report to:
+ *
+ * <pre>
+ * Timing timing = TimePickerMetricsRecorder.start(ui);
+ * // the operation
+ * TimePickerMetricsRecorder.record(operation, ui, timePicker, timing);
+ * </pre>
+ *
+ * @author Vaadin Ltd
+ */
+final class TimePickerMetricsRecorder {
+
+    /**
+     * A started operation, returned by {@link #start(UI)}.
+     */
+    static final class Timing {
+        private final long start;
+        // begun when recording, so that the event has the operation's times
+        private final FlightRecorderSupport.OperationEvent event;
+
+        private Timing(long start, FlightRecorderSupport.OperationEvent event) {
+            this.start = start;
+            this.event = event;
+        }
+    }
+
+    private static volatile TimePickerMetrics global;
+
+    private TimePickerMetricsRecorder() {
+        // static helpers only
+    }
+
+    static void setGlobal(TimePickerMetrics metrics) {
+        global = metrics;
+    }
+
+    static TimePickerMetrics getGlobal() {
+        return global;
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @param ui
+     *            the UI of the time picker, or {@code null}
+     * @return the started operation, or {@code null} if there is no sink or
+     *         recording to report the operation to
+     */
+    static Timing start(UI ui) {
+        boolean recording = FlightRecorderSupport.isEnabled();
+        if (!recording && !hasSink(ui)) {
+            return null;
+        }
+        return new Timing(System.nanoTime(),
+                recording ? FlightRecorderSupport.begin() : null);
+    }
+
+    /**
+     * Reports a timed operation started with {@link #start(UI)}.
+     *
+     * @param operation
+     *            the operation
+     * @param ui
+     *            the UI of the time picker, or {@code null}
+     * @param timePicker
+     *            the time picker, or {@code null}
+     * @param timing
+     *            the started operation returned by {@link #start(UI)}
+     */
+    static void record(TimePickerOperation operation, UI ui,
+            TimePicker timePicker, Timing timing) {
+        if (timing == null) {
+            return;
+        }
+        report(operation, ui, timePicker, System.nanoTime() - timing.start);
+        if (timing.event != null) {
+            timing.event.end(operation, ui, timePicker);
+        }
+    }
+
+    /**
+     * Reports an operation that is only counted.
+     *
+     * @param operation
+     *            the operation
+     * @param ui
+     *            the UI of the time picker, or {@code null}
+     * @param timePicker
+     *            the time picker, or {@code null}
+     */
+    static void count(TimePickerOperation operation, UI ui,
+            TimePicker timePicker) {
+        if (hasSink(ui)) {
+            report(operation, ui, timePicker, 0);
+        }
+        if (FlightRecorderSupport.isEnabled()) {
+            FlightRecorderSupport.commitInstant(operation, ui, timePicker);
+        }
+    }
+
+    private static boolean hasSink(UI ui) {
+        return global != null || ui != null
+                && ComponentUtil.getData(ui, TimePickerMetrics.class) != null;
+    }
+
+    private static void report(TimePickerOperation operation, UI ui,
+            TimePicker timePicker, long durationNanos) {
+        if (ui != null) {
+            TimePickerMetrics metrics = ComponentUtil.getData(ui,
+                    TimePickerMetrics.class);
+            if (metrics != null) {
+                metrics.record(operation, ui, timePicker, durationNanos);
+            }
+        }
+        TimePickerMetrics metrics = global;
+        if (metrics != null) {
+            metrics.record(operation, ui, timePicker, durationNanos);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+/**
+ * The server side operations of time pickers that are reported to
+ * {@link TimePickerMetrics}.
+ *
+ * @author Vaadin Ltd
+ */
+public enum TimePickerOperation {
+
+    /**
+     * The client side connector of a time picker is initialized, timed while
+     * the time picker is added to the JavaScript call that initializes the
+     * connectors of a round trip. The call itself is reported as
+     * {@link #JAVASCRIPT_EXECUTION}.
+     */
+    CONNECTOR_INIT,
+
+    /**
+     * A JavaScript call is sent to the client, timed from building the call
+     * until it is queued for the response.
+     */
+    JAVASCRIPT_EXECUTION,
+
+    /**
+     * The locale of a time picker is set, timed.
+     */
+    SET_LOCALE,
+
+    /**
+     * A value from the client is parsed, timed.
+     */
+    CLIENT_VALUE_SYNC,
+
+    /**
+     * A value from the client could not be parsed. Counted only.
+     */
+    PARSE_FAILURE,
+
+    /**
+     * A value is validated, timed.
+     */
+    VALIDATION,
+
+    /**
+     * A value is found invalid by the validation. Counted only.
+     */
+    VALIDATION_FAILURE,
+
+    /**
+     * The invalid state of a time picker changes, timed including the
+     * invalid change listeners.
+     */
+    INVALID_STATE_CHANGE,
+
+    /**
+     * A time picker is attached, timed.
+     */
+    ATTACH,
+
+    /**
+     * A time picker is detached, timed.
+     */
+    DETACH
+}
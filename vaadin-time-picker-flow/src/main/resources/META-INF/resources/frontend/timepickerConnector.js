@@ -3,18 +3,471 @@
         return window.Vaadin.Flow.tryCatchWrapper(callback, 'Vaadin Time Picker', 'vaadin-time-picker-flow');
     };
 
-    // Execute callback when predicate returns true.
-    // Try again later if predicate returns false.
-    function when(predicate, callback, timeout = 0) {
-        if (predicate()) {
+    const whenTimePickerDefined = function () {
+        return window.customElements
+            ? window.customElements.whenDefined('vaadin-time-picker')
+            : Promise.resolve();
+    };
+
+    // Fails loudly, once per page, if the web component doesn't have the private API that the
+    // allowed times and the blocked ranges are applied to the dropdown items with
+    let itemFilterChecked = false;
+    const checkItemFilterSupported = function () {
+        if (itemFilterChecked || !window.customElements) {
+            return;
+        }
+        itemFilterChecked = true;
+        whenTimePickerDefined().then(tryCatchWrapper(function () {
+            const prototype = window.customElements.get('vaadin-time-picker').prototype;
+            if (typeof prototype.__generateItems !== 'function'
+                || typeof prototype.__updateDropdownItems !== 'function') {
+                throw new Error("vaadin-time-picker: This version of the web component is not supported"
+                    + " by the connector, the allowed times and the blocked ranges are not applied to"
+                    + " the dropdown.");
+            }
+        }));
+    };
+
+    // Callbacks waiting for the shadow root of their timepicker, only the latest one per timepicker
+    const pendingUntilReady = new Map();
+    let readyCheckScheduled = false;
+
+    // Checked only once: a timepicker that is still not ready, eg. a detached one, formats its
+    // value with the current i18n by itself when it becomes ready, so its callback is not needed
+    const runReadyCallbacks = function () {
+        readyCheckScheduled = false;
+        const pending = Array.from(pendingUntilReady);
+        pendingUntilReady.clear();
+        pending.forEach(([timepicker, callback]) => {
+            if (timepicker.shadowRoot) {
+                callback();
+            }
+        });
+    };
+
+    // Checks all the pending timepickers together once the element is defined,
+    // in the next animation frame, so that the upgraded timepickers are ready
+    const scheduleReadyCheck = function () {
+        if (!readyCheckScheduled) {
+            readyCheckScheduled = true;
+            whenTimePickerDefined().then(() => requestAnimationFrame(runReadyCallbacks));
+        }
+    };
+
+    // Executes the callback once the timepicker has its shadow root, right away when it already has
+    const whenReady = function (timepicker, callback) {
+        if (timepicker.shadowRoot) {
+            pendingUntilReady.delete(timepicker);
             callback();
         } else {
-            setTimeout(() => when(predicate, callback, 200), timeout);
+            pendingUntilReady.set(timepicker, callback);
+            scheduleReadyCheck();
         }
+    };
+
+    // Code points of the zero digit of every Unicode decimal digit (Nd) block, each followed
+    // by the nine other digits. Generated from /\p{Nd}/u of Unicode 17.0 (Node.js 20.20 with
+    // ICU 78, see process.versions.unicode), splitting adjacent blocks into runs of ten; the
+    // property escape itself is not used at runtime, as not all supported browsers have it.
+    const DIGIT_ZEROS = [
+        0x0030, 0x0660, 0x06F0, 0x07C0, 0x0966, 0x09E6, 0x0A66, 0x0AE6, 0x0B66, 0x0BE6, 0x0C66,
+        0x0CE6, 0x0D66, 0x0DE6, 0x0E50, 0x0ED0, 0x0F20, 0x1040, 0x1090, 0x17E0, 0x1810, 0x1946,
+        0x19D0, 0x1A80, 0x1A90, 0x1B50, 0x1BB0, 0x1C40, 0x1C50, 0xA620, 0xA8D0, 0xA900, 0xA9D0,
+        0xA9F0, 0xAA50, 0xABF0, 0xFF10, 0x104A0, 0x10D30, 0x10D40, 0x11066, 0x110F0, 0x11136,
+        0x111D0, 0x112F0, 0x11450, 0x114D0, 0x11650, 0x116C0, 0x116D0, 0x116DA, 0x11730, 0x118E0,
+        0x11950, 0x11BF0, 0x11C50, 0x11D50, 0x11DA0, 0x11DE0, 0x11F50, 0x16130, 0x16A60, 0x16AC0,
+        0x16B50, 0x16D70, 0x1CCF0, 0x1D7CE, 0x1D7D8, 0x1D7E2, 0x1D7EC, 0x1D7F6, 0x1E140, 0x1E2F0,
+        0x1E4F0, 0x1E5F1, 0x1E950, 0x1FBF0
+    ];
+    let FIRST_SUPPLEMENTARY_ZERO = 0;
+    while (DIGIT_ZEROS[FIRST_SUPPLEMENTARY_ZERO] <= 0xFFFF) {
+        FIRST_SUPPLEMENTARY_ZERO++;
     }
 
+    // Lookup table from a BMP char code to its digit value plus one, 0 for other characters.
+    // Built on first use.
+    let bmpDigitValues;
+    const getBmpDigitValues = function () {
+        if (!bmpDigitValues) {
+            bmpDigitValues = new Uint8Array(0x10000);
+            for (let z = 0; z < FIRST_SUPPLEMENTARY_ZERO; z++) {
+                for (let digit = 0; digit < 10; digit++) {
+                    bmpDigitValues[DIGIT_ZEROS[z] + digit] = digit + 1;
+                }
+            }
+        }
+        return bmpDigitValues;
+    };
+
+    // Numeric value of a digit code point of any script, or -1 for any other code point
+    const digitValue = function (codePoint) {
+        if (codePoint <= 0xFFFF) {
+            return getBmpDigitValues()[codePoint] - 1;
+        }
+        // the rare digits outside of the BMP are binary searched
+        let low = FIRST_SUPPLEMENTARY_ZERO;
+        let high = DIGIT_ZEROS.length - 1;
+        while (low <= high) {
+            const middle = (low + high) >>> 1;
+            const offset = codePoint - DIGIT_ZEROS[middle];
+            if (offset < 0) {
+                high = middle - 1;
+            } else if (offset > 9) {
+                low = middle + 1;
+            } else {
+                return offset;
+            }
+        }
+        return -1;
+    };
+
+    // Code point starting at the index, decoding a surrogate pair without String.codePointAt
+    const codePointAt = function (string, index) {
+        const unit = string.charCodeAt(index);
+        if (unit >= 0xD800 && unit <= 0xDBFF && index + 1 < string.length) {
+            const low = string.charCodeAt(index + 1);
+            if (low >= 0xDC00 && low <= 0xDFFF) {
+                return ((unit - 0xD800) << 10) + (low - 0xDC00) + 0x10000;
+            }
+        }
+        return unit;
+    };
+
+    // Whether the UTF-16 code unit at the index is (part of) a digit. A low surrogate is
+    // checked together with the high surrogate before it.
+    const isDigitAt = function (string, index) {
+        const unit = string.charCodeAt(index);
+        if (unit >= 0xDC00 && unit <= 0xDFFF && index > 0) {
+            return digitValue(codePointAt(string, index - 1)) !== -1;
+        }
+        return digitValue(codePointAt(string, index)) !== -1;
+    };
+
+    const getAmPmString = function (locale, testTime, options) {
+        const testTimeString = testTime.toLocaleTimeString(locale, options);
+        // AM/PM string is anything from one letter in eastern arabic to standard two letters,
+        // to having space in between, dots ...
+        // cannot disqualify whitespace since some locales use a. m. / p. m.
+        // digits of any script end the am/pm string
+        let end = testTimeString.length;
+        let start = end;
+        while (start > 0 && !isDigitAt(testTimeString, start - 1)) {
+            start--;
+        }
+        if (start === end) {
+            // eg. chinese (and some else too) starts with am/pm
+            start = 0;
+            end = 0;
+            while (end < testTimeString.length && !isDigitAt(testTimeString, end)) {
+                end++;
+            }
+        }
+        return start < end ? testTimeString.substring(start, end).trim() : null;
+    };
+    const testPmTime = new Date('August 19, 1975 23:15:30');
+    const testAmTime = new Date('August 19, 1975 05:15:30');
+
+    // Splits a time string to runs of digits, each with its numeric digit values
+    // and the non-digit character right before it (or '' at the start)
+    const scanDigitRuns = function (timeString) {
+        const runs = [];
+        let run;
+        let separator = '';
+        let codePoint;
+        for (let i = 0; i < timeString.length; i += (codePoint > 0xFFFF ? 2 : 1)) {
+            codePoint = codePointAt(timeString, i);
+            const digit = digitValue(codePoint);
+            if (digit === -1) {
+                run = undefined;
+                separator = timeString.charAt(i);
+            } else {
+                if (!run) {
+                    run = {separator: separator, digits: []};
+                    runs.push(run);
+                }
+                run.digits.push(digit);
+            }
+        }
+        return runs;
+    };
+
+    const digitsToInt = function (digits, from, to) {
+        let value = 0;
+        for (let i = from; i < to; i++) {
+            value = value * 10 + digits[i];
+        }
+        return value;
+    };
+
+    // Parses a time string of the locale of the descriptor in a single pass over the string.
+    // The fields are taken from the digit runs in order: hours, minutes and seconds, at most
+    // two digits each, so that eg. 1230 is 12:30. Milliseconds are only parsed when requested,
+    // from a last run of 1-3 digits after a '.' following the seconds.
+    const parseTimeString = function (timeString, descriptor, includeMilliseconds) {
+        const pm = descriptor.pmString ? timeString.indexOf(descriptor.pmString) : -1;
+        const am = descriptor.amString ? timeString.indexOf(descriptor.amString) : -1;
+        const runs = scanDigitRuns(timeString);
+        const fields = [];
+        let milliseconds = 0;
+        for (let r = 0; r < runs.length && fields.length < 3; r++) {
+            const digits = runs[r].digits;
+            for (let i = 0; i < digits.length && fields.length < 3; i += 2) {
+                fields.push(digitsToInt(digits, i, Math.min(i + 2, digits.length)));
+            }
+            if (fields.length === 3 && includeMilliseconds && r === runs.length - 2) {
+                const last = runs[r + 1];
+                if (last.separator === '.' && last.digits.length <= 3) {
+                    // digits are either .1 .01 or .001 so need to "shift"
+                    milliseconds = digitsToInt(last.digits, 0, last.digits.length)
+                        * Math.pow(10, 3 - last.digits.length);
+                }
+            }
+        }
+        if (fields.length === 0) {
+            return undefined;
+        }
+        let hours = fields[0];
+        // handle 12 am -> 0
+        // do not do anything if am & pm are not used or if those are the same,
+        // as with locale bg-BG there is always ч. at the end of the time
+        if (pm !== am) {
+            if (hours === 12 && am !== -1) {
+                hours = 0;
+            } else {
+                hours += (pm !== -1 && hours !== 12 ? 12 : 0);
+            }
+        }
+        return {
+            hours: hours,
+            minutes: fields.length > 1 ? fields[1] : 0,
+            seconds: fields.length > 2 ? fields[2] : 0,
+            milliseconds: milliseconds
+        };
+    };
+
+    // Size of the cache of parsed time strings of each locale
+    const PARSE_CACHE_SIZE = 64;
+    // Size of the cache of dropdown item lists of each locale
+    const ITEMS_CACHE_SIZE = 16;
+
+    // Looks up the value of the key from a least recently used cache of the given size,
+    // or computes and caches it
+    const getCached = function (cache, size, key, compute) {
+        let value = cache.get(key);
+        if (value !== undefined || cache.has(key)) {
+            // move to the most recently used end
+            cache.delete(key);
+        } else {
+            value = compute();
+            if (cache.size >= size) {
+                cache.delete(cache.keys().next().value);
+            }
+        }
+        cache.set(key, value);
+        return value;
+    };
+
+    // Looks up the parsed time from the least recently used cache of the locale, or parses it
+    const parseTimeCached = function (timeString, descriptor, includeMilliseconds) {
+        const key = (includeMilliseconds ? '.' : ':') + timeString;
+        const timeObject = getCached(descriptor.parseCache, PARSE_CACHE_SIZE, key,
+            () => parseTimeString(timeString, descriptor, includeMilliseconds));
+        // a copy, as the cached object is shared by all the timepickers of the locale
+        return timeObject && Object.assign({}, timeObject);
+    };
+
+    const isTimeObject = function (timeObject) {
+        return timeObject !== null && typeof timeObject === 'object' && typeof timeObject.hours === 'number';
+    };
+
+    const timeObjectKey = function (timeObject) {
+        return timeObject.hours + ':' + timeObject.minutes + ':' + (timeObject.seconds || 0)
+            + '.' + (timeObject.milliseconds || 0);
+    };
+
+    // Looks up the dropdown items of the given step and min and max time objects from the least
+    // recently used cache of the locale, or generates them. The labels depend only on the locale
+    // and on the step, which decides the granularity, so the item list is shared by all the
+    // timepickers of the page with the same locale, step, min and max.
+    const generateItemsCached = function (descriptor, generate, min, max, step) {
+        const key = step + '|' + timeObjectKey(min) + '|' + timeObjectKey(max);
+        return getCached(descriptor.itemsCache, ITEMS_CACHE_SIZE, key, generate);
+    };
+
+    // the web component expects the correct granularity used for the time string,
+    // thus need to format the time object in correct granularity by passing the format options.
+    // When hour12 is undefined the browser decides the clock used by the locale. A 24 hour clock
+    // is forced with hourCycle, as hour12: false makes some browsers format midnight as 24:00.
+    const createFormatOptions = function (hour12) {
+        const clockOptions = hour12 === undefined ? {} : (hour12 ? {hour12: true} : {hourCycle: 'h23'});
+        return {
+            hoursAndMinutes: Object.freeze(Object.assign({
+                hour: "numeric",
+                minute: "numeric"
+            }, clockOptions)),
+            withSeconds: Object.freeze(Object.assign({
+                hour: "numeric",
+                minute: "numeric",
+                second: "numeric"
+            }, clockOptions))
+        };
+    };
+
+    // Locale descriptors shared by all the timepickers of the page, keyed by the BCP 47 language tag
+    // and the clock. Probing the browser for the locale is done only once per locale instead of once
+    // per timepicker.
+    const localeDescriptors = new Map();
+
+    const createDescriptor = function (locale, pmString, amString, hour12) {
+        const formatOptions = createFormatOptions(hour12);
+        // Creating a formatter is expensive, and toLocaleTimeString creates one on each call,
+        // so the formatters of both granularities are created once per locale and reused.
+        return Object.freeze({
+            pmString: pmString,
+            amString: amString,
+            parseCache: new Map(),
+            itemsCache: new Map(),
+            hoursAndMinutesFormat: new Intl.DateTimeFormat(locale, formatOptions.hoursAndMinutes),
+            withSecondsFormat: new Intl.DateTimeFormat(locale, formatOptions.withSeconds)
+        });
+    };
+
+    // Reused for formatting, the date itself is irrelevant, only the time of day is formatted.
+    // Formatting is synchronous, so a single instance can be shared by all the timepickers.
+    const formatDate = new Date(2000, 0, 1);
+
+    // Probes the browser for the am/pm strings of the locale, using the same clock as for
+    // formatting, so that the times are parsed the way the browser formatted them. The separators
+    // are not needed, the parser reads the digit runs between any separators.
+    const probeDescriptor = function (locale, hour12) {
+        try {
+            // Check whether the locale is supported by the browser or not
+            testPmTime.toLocaleTimeString(locale);
+        } catch (e) {
+            // FIXME should do a callback for server to throw an exception ?
+            throw new Error("vaadin-time-picker: The locale " + locale + " is not supported, falling back to default locale setting(en-US).");
+        }
+
+        const options = createFormatOptions(hour12).hoursAndMinutes;
+        const format = new Intl.DateTimeFormat(locale, options);
+        if (format.formatToParts) {
+            // the day period tokens are the am/pm strings
+            const getDayPeriod = function (time) {
+                const part = format.formatToParts(time).find(part => part.type === 'dayPeriod');
+                return part ? part.value.trim() : null;
+            };
+            return createDescriptor(locale, getDayPeriod(testPmTime), getDayPeriod(testAmTime), hour12);
+        }
+
+        // Fallback for browsers without formatToParts, probing the formatted strings for the
+        // am/pm strings of a 12 hour clock
+        return createDescriptor(locale, getAmPmString(locale, testPmTime, options),
+            getAmPmString(locale, testAmTime, options), hour12);
+    };
+
+    // timeFormat is the time format of the locale computed by the server: {hour12}. Without it the
+    // browser decides the clock too. The am/pm strings always come from the browser, as the
+    // server formats them differently for many locales.
+    const getLocaleDescriptor = function (locale, timeFormat) {
+        const hour12 = timeFormat ? timeFormat.hour12 : undefined;
+        const key = locale + '|' + hour12;
+        let descriptor = localeDescriptors.get(key);
+        if (!descriptor) {
+            descriptor = probeDescriptor(locale, hour12);
+            localeDescriptors.set(key, descriptor);
+        }
+        return descriptor;
+    };
+
+    const SECONDS_IN_A_DAY = 86400;
+
+    // Decodes the run lengths of not allowed and allowed slots sent by the server
+    const decodeAllowedSlots = function (step, runs) {
+        const slots = new Uint8Array(SECONDS_IN_A_DAY / step);
+        let slot = 0;
+        for (let i = 0; i < runs.length; i += 2) {
+            slot += runs[i];
+            slots.fill(1, slot, slot + runs[i + 1]);
+            slot += runs[i + 1];
+        }
+        return slots;
+    };
+
+    // Item values are ISO times: hh:mm, hh:mm:ss or hh:mm:ss.fff
+    const parseIsoMillisOfDay = function (isoTime) {
+        const parts = isoTime.split(':');
+        const seconds = parts[2] !== undefined ? parseFloat(parts[2]) : 0;
+        return (parseInt(parts[0], 10) * 3600 + parseInt(parts[1], 10) * 60) * 1000 + Math.round(seconds * 1000);
+    };
+
+    const isAllowedTime = function (millisOfDay, step, slots) {
+        if (millisOfDay % 1000 !== 0) {
+            return false;
+        }
+        const secondOfDay = millisOfDay / 1000;
+        return secondOfDay % step === 0 && slots[secondOfDay / step] === 1;
+    };
+
+    // Blocked ranges are sorted [start, end) millisecond of day pairs in a flat array
+    const isBlockedTime = function (millisOfDay, ranges) {
+        let low = 0;
+        let high = ranges.length / 2 - 1;
+        while (low <= high) {
+            const mid = (low + high) >>> 1;
+            if (ranges[2 * mid] <= millisOfDay) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high >= 0 && millisOfDay < ranges[2 * high + 1];
+    };
+
+    // Applies a change of the server side TimeAvailability, returns the new ranges
+    const updateRanges = function (ranges, blocked, from, to) {
+        const result = [];
+        let i = 0;
+        // ranges not touching the changed range are kept as is
+        while (i < ranges.length && (blocked ? ranges[i + 1] < from : ranges[i + 1] <= from)) {
+            result.push(ranges[i], ranges[i + 1]);
+            i += 2;
+        }
+        let start = from;
+        let end = to;
+        while (i < ranges.length && (blocked ? ranges[i] <= to : ranges[i] < to)) {
+            if (blocked) {
+                start = Math.min(start, ranges[i]);
+                end = Math.max(end, ranges[i + 1]);
+            } else {
+                if (ranges[i] < from) {
+                    result.push(ranges[i], from);
+                }
+                if (ranges[i + 1] > to) {
+                    result.push(to, ranges[i + 1]);
+                }
+            }
+            i += 2;
+        }
+        if (blocked) {
+            result.push(start, end);
+        }
+        for (; i < ranges.length; i += 2) {
+            result.push(ranges[i], ranges[i + 1]);
+        }
+        return result;
+    };
+
     window.Vaadin.Flow.timepickerConnector = {
-        initLazy: timepicker => tryCatchWrapper(function (timepicker) {
+        initLazy: (timepicker, invalid) => tryCatchWrapper(function (timepicker, invalid) {
+            // By default, the invalid flag is always false when a component is created.
+            // However, if the component is populated and validated in the same round trip,
+            // the client side validation may have already reset the invalid state set
+            // by the server before it was disabled below, so restore it. This is done
+            // also when the connector is initialized again for the same element.
+            if (invalid) {
+                timepicker.invalid = true;
+            }
+
             // Check whether the connector was already initialized for the timepicker
             if (timepicker.$connector) {
                 return;
@@ -22,104 +475,89 @@
 
             timepicker.$connector = {};
 
-            const getAmPmString = function (locale, testTime) {
-                const testTimeString = testTime.toLocaleTimeString(locale);
-                // AM/PM string is anything from one letter in eastern arabic to standard two letters,
-                // to having space in between, dots ...
-                // cannot disqualify whitespace since some locales use a. m. / p. m.
-                // TODO when more scripts support is added (than Arabic), need to exclude those numbers too
-                const endWithAmPmRegex = /[^\d\u0660-\u0669]+$/g;
-                let amPmString = testTimeString.match(endWithAmPmRegex);
-                if (!amPmString) {
-                    // eg. chinese (and some else too) starts with am/pm
-                    amPmString = testTimeString.match(/^[^\d\u0660-\u0669]+/g);
-                }
-                if (amPmString) {
-                    amPmString = amPmString[0].trim();
-                }
-                return amPmString;
+            // Disable client side validation, the value is validated on the server
+            timepicker.validate = function () {
+                return this.checkValidity();
             };
-            const testPmTime = new Date('August 19, 1975 23:15:30');
-            const testAmTime = new Date('August 19, 1975 05:15:30');
 
-            const getPmString = function (locale) {
-                return getAmPmString(locale, testPmTime);
+            let allowedStep;
+            let allowedSlots;
+            let blockedRanges;
+            // locale descriptor and i18n object of the last setLocale call
+            let localeDescriptor;
+            let connectorI18n;
 
-            };
-            const getAmString = function (locale) {
-                return getAmPmString(locale, testAmTime);
+            const isAvailableItem = function (item) {
+                if (typeof item.value !== 'string') {
+                    return true;
+                }
+                const millisOfDay = parseIsoMillisOfDay(item.value);
+                return (!allowedSlots || isAllowedTime(millisOfDay, allowedStep, allowedSlots))
+                    && (!blockedRanges || !isBlockedTime(millisOfDay, blockedRanges));
             };
 
-            // map from unicode eastern arabic number characters to arabic numbers
-            const arabicDigitMap = {
-                '\\u0660': '0',
-                '\\u0661': '1',
-                '\\u0662': '2',
-                '\\u0663': '3',
-                '\\u0664': '4',
-                '\\u0665': '5',
-                '\\u0666': '6',
-                '\\u0667': '7',
-                '\\u0668': '8',
-                '\\u0669': '9'
+            // FIXME works but uses private API, needs an item filter in the web component.
+            // The override is set on the element itself and it calls the method of the prototype
+            // when the items are generated, so it works also when the element is upgraded only
+            // after the connector has been initialized.
+            timepicker.__generateItems = function (min, max, step) {
+                const generateItems = Object.getPrototypeOf(this).__generateItems;
+                const args = arguments;
+                const generate = () => generateItems.apply(this, args);
+                // only the labels formatted by the connector for the locale can be shared
+                const items = localeDescriptor && this.i18n === connectorI18n
+                        && isTimeObject(min) && isTimeObject(max) && typeof step !== 'object'
+                    ? generateItemsCached(localeDescriptor, generate, min, max, step)
+                    : generate();
+                if (!allowedSlots && !blockedRanges || !Array.isArray(items)) {
+                    return items;
+                }
+                return items.filter(isAvailableItem);
             };
 
-            // parses eastern arabic number characters to arabic numbers (0-9)
-            const anyNumberCharToArabicNumberReplacer = function (charsToReplace) {
-                return charsToReplace.replace(/[\u0660-\u0669]/g, function (char) {
-                    const unicode = '\\u0' + char.charCodeAt(0).toString(16);
-                    return arabicDigitMap[unicode];
-                });
+            const refreshItems = function () {
+                // FIXME works but uses private API, needs fixes in web component
+                if (typeof timepicker.__updateDropdownItems === 'function') {
+                    timepicker.__updateDropdownItems(timepicker.i18n, timepicker.min, timepicker.max, timepicker.step);
+                }
             };
 
-            const parseAnyCharsToInt = function (anyNumberChars) {
-                return parseInt(anyNumberCharToArabicNumberReplacer(anyNumberChars));
-            };
+            timepicker.$connector.setAllowedTimes = tryCatchWrapper(function (step, runs) {
+                if (runs) {
+                    checkItemFilterSupported();
+                    allowedStep = step;
+                    allowedSlots = decodeAllowedSlots(step, runs);
+                } else {
+                    allowedStep = undefined;
+                    allowedSlots = undefined;
+                }
+                refreshItems();
+            });
 
-            const parseMillisecondCharsToInt =function (millisecondChars) {
-                millisecondChars = anyNumberCharToArabicNumberReplacer(millisecondChars);
-                // digits are either .1 .01 or .001 so need to "shift"
-                if (millisecondChars.length === 1) {
-                    millisecondChars += "00";
-                } else if (millisecondChars.length === 2) {
-                    millisecondChars += "0";
+            timepicker.$connector.setBlockedRanges = tryCatchWrapper(function (ranges) {
+                blockedRanges = ranges && ranges.length ? ranges : undefined;
+                if (blockedRanges) {
+                    checkItemFilterSupported();
                 }
-                return parseInt(millisecondChars);
-            };
+                refreshItems();
+            });
 
-            // detecting milliseconds from input, expects am/pm removed from end, eg. .0 or .00 or .000
-            const millisecondRegExp = /[[\.][\d\u0660-\u0669]{1,3}$/;
+            timepicker.$connector.updateBlockedRange = tryCatchWrapper(function (blocked, from, to) {
+                const ranges = updateRanges(blockedRanges || [], blocked, from, to);
+                blockedRanges = ranges.length ? ranges : undefined;
+                refreshItems();
+            });
 
-            timepicker.$connector.setLocale = tryCatchWrapper(function (locale) {
+            timepicker.$connector.setLocale = tryCatchWrapper(function (locale, timeFormat) {
                 // capture previous value if any
                 let previousValueObject;
                 if (timepicker.value && timepicker.value !== '') {
                     previousValueObject = timepicker.i18n.parseTime(timepicker.value);
                 }
 
-                try {
-                    // Check whether the locale is supported by the browser or not
-                    testPmTime.toLocaleTimeString(locale);
-                } catch (e) {
-                    locale = "en-US";
-                    // FIXME should do a callback for server to throw an exception ?
-                    throw new Error("vaadin-time-picker: The locale " + locale + " is not supported, falling back to default locale setting(en-US).");
-                }
-
-                // 1. 24 or 12 hour clock, if latter then what are the am/pm strings ?
-                const pmString = getPmString(locale);
-                const amString = getAmString(locale);
-
-                // 2. What is the separator ?
-                let localeTimeString = testPmTime.toLocaleTimeString(locale);
-                // since the next regex picks first non-number-whitespace, need to discard possible PM from beginning (eg. chinese locale)
-                if (pmString && localeTimeString.startsWith(pmString)) {
-                    localeTimeString = localeTimeString.replace(pmString, '');
-                }
-                const separator = localeTimeString.match(/[^\u0660-\u0669\s\d]/);
-
-                // 3. regexp that allows to find the numbers with optional separator and continuing searching after it
-                const numbersRegExp = new RegExp('([\\d\\u0660-\\u0669]){1,2}(?:' + separator + ')?', 'g');
+                const descriptor = getLocaleDescriptor(locale, timeFormat);
+                const pmString = descriptor.pmString;
+                const amString = descriptor.amString;
 
                 const includeSeconds = function () {
                     return timepicker.step && timepicker.step < 60;
@@ -129,21 +567,8 @@
                     return timepicker.step && timepicker.step < 1;
                 };
 
-                // the web component expects the correct granularity used for the time string,
-                // thus need to format the time object in correct granularity by passing the format options
-                let cachedStep;
-                let cachedOptions;
-                const getTimeFormatOptions = function () {
-                    // calculate the format options if none done cached or step has changed
-                    if (!cachedOptions || cachedStep !== timepicker.step) {
-                        cachedOptions = {
-                            hour: "numeric",
-                            minute: "numeric",
-                            second: includeSeconds() ? "numeric" : undefined,
-                        };
-                        cachedStep = timepicker.step;
-                    }
-                    return cachedOptions;
+                const getTimeFormat = function () {
+                    return includeSeconds() ? descriptor.withSecondsFormat : descriptor.hoursAndMinutesFormat;
                 };
 
                 const formatMilliseconds = function (localeTimeString, milliseconds) {
@@ -173,71 +598,28 @@
                     return localeTimeString;
                 };
 
-                let cachedTimeString;
-                let cachedTimeObject;
-
-                timepicker.i18n = {
+                localeDescriptor = descriptor;
+                connectorI18n = timepicker.i18n = {
                     formatTime: tryCatchWrapper(function (timeObject) {
                         if (timeObject) {
-                            let timeToBeFormatted = new Date();
-                            timeToBeFormatted.setHours(timeObject.hours);
-                            timeToBeFormatted.setMinutes(timeObject.minutes);
-                            timeToBeFormatted.setSeconds(timeObject.seconds !== undefined ? timeObject.seconds : 0);
-                            let localeTimeString = timeToBeFormatted.toLocaleTimeString(locale, getTimeFormatOptions());
+                            formatDate.setHours(timeObject.hours, timeObject.minutes,
+                                timeObject.seconds !== undefined ? timeObject.seconds : 0, 0);
+                            let localeTimeString = getTimeFormat().format(formatDate);
                             // milliseconds not part of the time format API
                             localeTimeString = formatMilliseconds(localeTimeString, timeObject.milliseconds);
                             return localeTimeString;
                         }
                     }),
                     parseTime: tryCatchWrapper(function (timeString) {
-                        if (timeString && timeString === cachedTimeString && cachedTimeObject) {
-                            return cachedTimeObject;
-                        }
                         if (timeString) {
-                            const pm = timeString.search(pmString);
-                            const am = timeString.search(amString);
-                            let numbersOnlyTimeString = timeString.replace(amString, '').replace(pmString, '').trim();
-                            // reset regex to beginning or things can explode when the length of the input changes
-                            numbersRegExp.lastIndex = 0;
-                            let hours = numbersRegExp.exec(numbersOnlyTimeString);
-                            if (hours) {
-                                hours = parseAnyCharsToInt(hours[0].replace(separator, ''));
-                                // handle 12 am -> 0
-                                // do not do anything if am & pm are not used or if those are the same,
-                                // as with locale bg-BG there is always ч. at the end of the time
-                                if (pm !== am) {
-                                    if (hours === 12 && am !== -1) {
-                                        hours = 0;
-                                    } else {
-                                        hours += (pm !== -1 && hours !== 12 ? 12 : 0)
-                                    }
-                                }
-                                const minutes = numbersRegExp.exec(numbersOnlyTimeString);
-                                const seconds = minutes && numbersRegExp.exec(numbersOnlyTimeString);
-                                // reset to end or things can explode
-                                let milliseconds = seconds && includeMilliSeconds() && millisecondRegExp.exec(numbersOnlyTimeString);
-                                // handle case where last numbers are seconds and . is the separator (invalid regexp match)
-                                if (milliseconds && milliseconds['index'] <= seconds['index']) {
-                                    milliseconds = undefined;
-                                }
-                                // hours is a number at this point, others are either arrays or null
-                                // the string in [0] from the arrays includes the separator too
-                                cachedTimeObject = hours !== undefined && {
-                                    hours: hours,
-                                    minutes: minutes ? parseAnyCharsToInt(minutes[0].replace(separator, '')) : 0,
-                                    seconds: seconds ? parseAnyCharsToInt(seconds[0].replace(separator, '')) : 0,
-                                    milliseconds: minutes && seconds && milliseconds ? parseMillisecondCharsToInt(milliseconds[0].replace('.', '')) : 0
-                                };
-                                cachedTimeString = timeString;
-                                return cachedTimeObject;
-                            }
                             // when nothing is returned, the component shows the invalid state for the input
+                            return parseTimeCached(timeString, descriptor, includeMilliSeconds());
                         }
                     })
                 };
 
                 if (previousValueObject) {
-                    when(() => timepicker.shadowRoot, () => {
+                    whenReady(timepicker, tryCatchWrapper(function () {
                         const newValue = timepicker.i18n.formatTime(previousValueObject);
                         // FIXME works but uses private API, needs fixes in web component
                         if (timepicker.__inputElement.value !== newValue) {
@@ -245,9 +627,20 @@
                             timepicker.__dropdownElement.value = newValue;
                             timepicker.__onInputChange();
                         }
-                    });
+                    }));
+                }
+            });
+        })(timepicker, invalid),
+
+        // Initializes the connectors of all the given timepickers, invalid[i] is
+        // the server side invalid state of timepickers[i]
+        initLazyAll: (timepickers, invalid) => tryCatchWrapper(function (timepickers, invalid) {
+            timepickers.forEach((timepicker, index) => {
+                // element might not exist on client side if it was removed in the same round trip
+                if (timepicker) {
+                    window.Vaadin.Flow.timepickerConnector.initLazy(timepicker, invalid[index]);
                 }
             });
-        })(timepicker)
+        })(timepickers, invalid)
     };
 })();
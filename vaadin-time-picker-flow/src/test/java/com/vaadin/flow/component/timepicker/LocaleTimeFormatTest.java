@@ -0,0 +1,80 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import elemental.json.JsonObject;
+
+/**
+ * The AM/PM strings and the hour clock of the JDK depend on the locale
+ * provider, so these tests are run with both the JRE (COMPAT) and the CLDR
+ * providers, see the surefire executions of the module.
+ */
+public class LocaleTimeFormatTest {
+
+    private static final Locale ES_MX = new Locale("es", "MX");
+    private static final Locale HI_IN = new Locale("hi", "IN");
+
+    @Test
+    public void esMX_onlyClockSent() {
+        assertOnlyClockSent(ES_MX, "es-MX");
+    }
+
+    @Test
+    public void hiIN_onlyClockSent() {
+        assertOnlyClockSent(HI_IN, "hi-IN");
+    }
+
+    @Test
+    public void esMX_clockMatchesServerFormat() {
+        assertClockMatchesServerFormat(ES_MX);
+    }
+
+    @Test
+    public void hiIN_clockMatchesServerFormat() {
+        assertClockMatchesServerFormat(HI_IN);
+    }
+
+    private static void assertOnlyClockSent(Locale locale,
+            String languageTag) {
+        LocaleTimeFormat format = LocaleTimeFormat.of(locale);
+        assertEquals(languageTag, format.getLanguageTag());
+        JsonObject json = format.toJson();
+        // the browser takes the AM/PM strings from the same formatter it
+        // formats the times with
+        assertEquals(Collections.singletonList("hour12"),
+                Arrays.asList(json.keys()));
+        assertEquals(format.isHour12(), json.getBoolean("hour12"));
+    }
+
+    private static void assertClockMatchesServerFormat(Locale locale) {
+        String formatted = DateTimeFormatter
+                .ofLocalizedTime(FormatStyle.MEDIUM).withLocale(locale)
+                .format(LocalTime.of(23, 15, 30));
+        assertEquals(formatted, !formatted.contains("23"),
+                LocaleTimeFormat.of(locale).isHour12());
+    }
+}
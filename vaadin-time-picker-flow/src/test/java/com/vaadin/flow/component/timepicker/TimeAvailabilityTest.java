@@ -0,0 +1,100 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vaadin.flow.shared.Registration;
+
+public class TimeAvailabilityTest {
+
+    @Test
+    public void listenerThrows_otherListenersNotified() {
+        TimeAvailability availability = new TimeAvailability();
+        List<Integer> notified = new ArrayList<>();
+        availability.addRangeListener((blocked, from, to) -> {
+            throw new IllegalStateException("failing listener");
+        });
+        availability.addRangeListener(
+                (blocked, from, to) -> notified.add(from));
+
+        availability.block(LocalTime.of(8, 0), LocalTime.of(9, 0));
+        availability.block(LocalTime.of(10, 0), LocalTime.of(11, 0));
+        assertEquals(Arrays.asList(28_800_000, 36_000_000), notified);
+    }
+
+    @Test
+    public void listenerCalledWithoutLock_changesInOrder() {
+        TimeAvailability availability = new TimeAvailability();
+        List<Boolean> changes = new ArrayList<>();
+        availability.addRangeListener((blocked, from, to) -> {
+            assertFalse(Thread.holdsLock(availability));
+            changes.add(blocked);
+            if (blocked) {
+                // a change made by a listener is delivered after this one
+                availability.unblock(LocalTime.of(8, 0), LocalTime.of(9, 0));
+            }
+        });
+        List<Boolean> laterListener = new ArrayList<>();
+        availability.addRangeListener(
+                (blocked, from, to) -> laterListener.add(blocked));
+
+        availability.block(LocalTime.of(8, 0), LocalTime.of(9, 0));
+        assertEquals(Arrays.asList(true, false), changes);
+        assertEquals(Arrays.asList(true, false), laterListener);
+        assertFalse(availability.isBlocked(LocalTime.of(8, 30)));
+    }
+
+    @Test
+    public void listenerRemovedByEarlierListener_changeStillDelivered() {
+        TimeAvailability availability = new TimeAvailability();
+        List<Boolean> removedListener = new ArrayList<>();
+        TimeAvailability.RangeListener removed = (blocked, from,
+                to) -> removedListener.add(blocked);
+        Registration[] registration = new Registration[1];
+        availability.addRangeListener((blocked, from, to) -> {
+            if (blocked) {
+                registration[0].remove();
+                availability.unblock(LocalTime.of(8, 0), LocalTime.of(9, 0));
+            }
+        });
+        registration[0] = availability.addRangeListener(removed);
+
+        availability.block(LocalTime.of(8, 0), LocalTime.of(9, 0));
+        // the unblock is made after the removal
+        assertEquals(Arrays.asList(true), removedListener);
+    }
+
+    @Test
+    public void change_versionIncremented() {
+        TimeAvailability availability = new TimeAvailability();
+        int version = availability.getVersion();
+        availability.block(LocalTime.of(8, 0), LocalTime.of(9, 0));
+        assertNotEquals(version, availability.getVersion());
+        version = availability.getVersion();
+        availability.block(LocalTime.of(8, 0), LocalTime.of(8, 0));
+        assertEquals(version, availability.getVersion());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.timepicker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vaadin.flow.component.timepicker.TimePickerMetricsRecorder.Timing;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class TimePickerFlightRecorderEventTest {
+
+    private static final String EVENT_NAME = "com.vaadin.flow.component.timepicker.Operation";
+
+    @Test
+    public void timedOperation_eventHasOperationDuration() throws Exception {
+        List<RecordedEvent> events;
+        Path file = Files.createTempFile("time-picker", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EVENT_NAME).withoutThreshold();
+            recording.start();
+
+            Timing timing = TimePickerMetricsRecorder.start(null);
+            Thread.sleep(20);
+            TimePickerMetricsRecorder.record(TimePickerOperation.VALIDATION,
+                    null, null, timing);
+            TimePickerMetricsRecorder.count(TimePickerOperation.PARSE_FAILURE,
+                    null, null);
+
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+
+        assertEquals(2, events.size());
+        RecordedEvent timed = events.get(0);
+        assertEquals("VALIDATION", timed.getString("operation"));
+        assertTrue(timed.getDuration().compareTo(Duration.ofMillis(20)) >= 0);
+        assertEquals(timed.getStartTime().plus(timed.getDuration()),
+                timed.getEndTime());
+        RecordedEvent counted = events.get(1);
+        assertEquals("PARSE_FAILURE", counted.getString("operation"));
+        assertEquals(Duration.ZERO, counted.getDuration());
+        assertEquals(-1, counted.getInt("uiId"));
+    }
+}
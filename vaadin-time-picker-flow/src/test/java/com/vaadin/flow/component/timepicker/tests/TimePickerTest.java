@@ -17,10 +17,19 @@ package com.vaadin.flow.component.timepicker.tests;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.time.Duration;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -28,13 +37,26 @@ import org.mockito.Mockito;
 
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
 import com.vaadin.flow.component.timepicker.GeneratedVaadinTimePicker;
+import com.vaadin.flow.component.timepicker.TimeAvailability;
+import com.vaadin.flow.component.timepicker.TimeConstraints;
 import com.vaadin.flow.component.timepicker.TimePicker;
+import com.vaadin.flow.component.timepicker.TimePickerMetrics;
+import com.vaadin.flow.component.timepicker.TimePickerOperation;
+import com.vaadin.flow.data.value.HasValueChangeMode;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.di.Instantiator;
+import com.vaadin.flow.dom.DomListenerRegistration;
 import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.server.Command;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
 
+import elemental.json.Json;
+import elemental.json.JsonArray;
+
 public class TimePickerTest {
 
     private static LocalTime TEST_VALUE = LocalTime.now();
@@ -48,6 +70,24 @@ public class TimePickerTest {
         }
     }
 
+    private static class SynchronizationTimePicker extends TimePicker {
+
+        private String synchronizedEvent = "value-changed";
+        private final DomListenerRegistration synchronizationRegistration = Mockito
+                .mock(DomListenerRegistration.class);
+
+        @Override
+        protected void setSynchronizedEvent(String synchronizedEvent) {
+            this.synchronizedEvent = synchronizedEvent;
+            super.setSynchronizedEvent(synchronizedEvent);
+        }
+
+        @Override
+        protected DomListenerRegistration getSynchronizationRegistration() {
+            return synchronizationRegistration;
+        }
+    }
+
     @Test
     public void timePicker_basicCases() {
         TimePicker picker = new TimePicker();
@@ -62,6 +102,38 @@ public class TimePickerTest {
         assertEquals(LocalTime.of(7, 40), picker.getValue());
     }
 
+    @Test
+    public void clientValueWithSecondsAndMilliseconds_parsed() {
+        TimePicker picker = new TimePicker();
+
+        picker.getElement().setProperty("value", "07:40:15");
+        assertEquals(LocalTime.of(7, 40, 15), picker.getValue());
+
+        picker.getElement().setProperty("value", "07:40:15.12");
+        assertEquals(LocalTime.of(7, 40, 15, 120_000_000), picker.getValue());
+    }
+
+    @Test
+    public void unparsableClientValue_valueIsEmptyAndInvalid() {
+        TimePicker picker = new TimePicker(LocalTime.of(9, 32));
+
+        picker.getElement().setProperty("value", "25:00");
+        assertEquals(null, picker.getValue());
+        assertTrue(picker.isInvalid());
+
+        picker.getElement().setProperty("value", "not a time");
+        assertEquals(null, picker.getValue());
+        assertTrue(picker.isInvalid());
+
+        picker.getElement().setProperty("value", "");
+        assertFalse(picker.isInvalid());
+
+        picker.getElement().setProperty("value", "foo");
+        picker.getElement().setProperty("value", "07:40");
+        assertEquals(LocalTime.of(7, 40), picker.getValue());
+        assertFalse(picker.isInvalid());
+    }
+
     @Test
     public void timePicker_nullValue() {
         TimePicker timePicker = new TimePicker();
@@ -227,6 +299,418 @@ public class TimePickerTest {
         assertEquals(null, timePicker.getMaxTime());
     }
 
+    @Test
+    public void rebind_valueAndConstraintsApplied() {
+        TimePicker timePicker = new TimePicker();
+        TimeConstraints constraints = TimeConstraints.NONE
+                .withMin(LocalTime.of(8, 0)).withMax(LocalTime.of(17, 0))
+                .withStep(Duration.ofMinutes(15)).withRequired(true);
+        timePicker.rebind(LocalTime.of(18, 0), constraints);
+
+        assertEquals(LocalTime.of(18, 0), timePicker.getValue());
+        assertEquals("08:00", timePicker.getMin());
+        assertEquals("17:00", timePicker.getMax());
+        assertEquals(Duration.ofMinutes(15), timePicker.getStep());
+        assertTrue(timePicker.isRequired());
+        assertTrue(timePicker.isInvalid());
+
+        timePicker.rebind(null, TimeConstraints.NONE);
+        assertEquals(null, timePicker.getValue());
+        assertEquals(null, timePicker.getMinTime());
+        assertEquals(null, timePicker.getMaxTime());
+        assertFalse(timePicker.getElement().hasProperty("step"));
+        assertFalse(timePicker.isRequired());
+        assertFalse(timePicker.isInvalid());
+    }
+
+    @Test
+    public void constraintsWithoutLocale_explicitLocaleKeptOnAttach() {
+        TimePicker timePicker = new TimePicker();
+        timePicker.setConstraints(
+                TimeConstraints.NONE.withLocale(Locale.GERMANY));
+        timePicker.setConstraints(TimeConstraints.NONE);
+        assertEquals(Locale.GERMANY, timePicker.getLocale());
+
+        UI ui = new UI();
+        ui.setLocale(Locale.FRANCE);
+        ui.add(timePicker);
+        assertEquals(Locale.GERMANY, timePicker.getLocale());
+    }
+
+    @Test
+    public void noLocale_uiLocaleUpdatedOnAttach() {
+        TimePicker timePicker = new TimePicker();
+        UI ui = new UI();
+        ui.setLocale(Locale.GERMANY);
+        ui.add(timePicker);
+        assertEquals(Locale.GERMANY, timePicker.getLocale());
+
+        ui.remove(timePicker);
+        ui.setLocale(Locale.FRANCE);
+        ui.add(timePicker);
+        assertEquals(Locale.FRANCE, timePicker.getLocale());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void timeConstraints_localeWithoutLanguage_throwsException() {
+        TimeConstraints.NONE.withLocale(new Locale("", "FI"));
+    }
+
+    @Test
+    public void rebind_valueValidatedOnce() {
+        TimePicker timePicker = new TimePicker(LocalTime.of(9, 0));
+        TimeConstraints constraints = TimeConstraints.NONE
+                .withMax(LocalTime.of(12, 0));
+        List<TimePickerOperation> operations = new ArrayList<>();
+        TimePickerMetrics.setGlobal((operation, ui, picker,
+                durationNanos) -> operations.add(operation));
+        try {
+            timePicker.rebind(LocalTime.of(13, 0), constraints);
+            assertEquals(1, operations.stream()
+                    .filter(TimePickerOperation.VALIDATION::equals).count());
+
+            operations.clear();
+            timePicker.rebind(LocalTime.of(13, 0), TimeConstraints.NONE);
+            assertEquals(1, operations.stream()
+                    .filter(TimePickerOperation.VALIDATION::equals).count());
+        } finally {
+            TimePickerMetrics.setGlobal(null);
+        }
+        assertFalse(timePicker.isInvalid());
+    }
+
+    @Test
+    public void setConstraints_sharedBetweenPickers() {
+        TimeConstraints businessHours = TimeConstraints.NONE
+                .withMin(LocalTime.of(8, 0)).withMax(LocalTime.of(17, 0))
+                .withLocale(Locale.GERMANY);
+        TimePicker first = new TimePicker(LocalTime.of(7, 0));
+        TimePicker second = new TimePicker(LocalTime.of(9, 0));
+        first.setConstraints(businessHours);
+        second.setConstraints(businessHours);
+
+        Assert.assertSame(businessHours, first.getConstraints());
+        Assert.assertSame(businessHours, second.getConstraints());
+        assertEquals(Locale.GERMANY, first.getLocale());
+        assertEquals("08:00", second.getMin());
+        assertTrue(first.isInvalid());
+        assertFalse(second.isInvalid());
+
+        second.setMaxTime(LocalTime.of(8, 30));
+        assertEquals(LocalTime.of(17, 0), first.getMaxTime());
+        Assert.assertSame(businessHours, first.getConstraints());
+    }
+
+    @Test
+    public void setAllowedTimes_valueNotAllowed_invalid() {
+        TimePicker timePicker = new TimePicker();
+        timePicker.setStep(Duration.ofMinutes(30));
+        timePicker.setAllowedTimes(
+                Arrays.asList(LocalTime.of(9, 30), LocalTime.of(8, 0)));
+        assertEquals(Arrays.asList(LocalTime.of(8, 0), LocalTime.of(9, 30)),
+                new ArrayList<>(timePicker.getAllowedTimes()));
+
+        timePicker.setValue(LocalTime.of(9, 30));
+        assertFalse(timePicker.isInvalid());
+        timePicker.setValue(LocalTime.of(9, 0));
+        assertTrue(timePicker.isInvalid());
+        timePicker.setValue(LocalTime.of(9, 31));
+        assertTrue(timePicker.isInvalid());
+    }
+
+    @Test
+    public void setAllowedTimes_currentValueRevalidated() {
+        TimePicker timePicker = new TimePicker(LocalTime.of(9, 0));
+        timePicker.setStep(Duration.ofMinutes(30));
+        timePicker.setAllowedTimes(Arrays.asList(LocalTime.of(8, 0)));
+        assertTrue(timePicker.isInvalid());
+
+        timePicker.setAllowedTimes(null);
+        assertFalse(timePicker.isInvalid());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setAllowedTimes_timeNotOnStep_throwsException() {
+        TimePicker timePicker = new TimePicker();
+        timePicker.setAllowedTimes(Arrays.asList(LocalTime.of(9, 30)));
+    }
+
+    @Test
+    public void timeAvailability_blockAndUnblock_rangesMerged() {
+        TimeAvailability availability = new TimeAvailability();
+        availability.block(LocalTime.of(9, 0), LocalTime.of(10, 0));
+        availability.block(LocalTime.of(10, 0), LocalTime.of(11, 0));
+        availability.block(LocalTime.of(22, 0), LocalTime.MIDNIGHT);
+        assertEquals(2, availability.getBlockedRangeCount());
+        assertTrue(availability.isBlocked(LocalTime.of(10, 30)));
+        assertFalse(availability.isBlocked(LocalTime.of(11, 0)));
+        assertTrue(availability.isBlocked(LocalTime.of(23, 59)));
+
+        availability.unblock(LocalTime.of(9, 30), LocalTime.of(10, 0));
+        assertEquals(3, availability.getBlockedRangeCount());
+        assertTrue(availability.isBlocked(LocalTime.of(9, 0)));
+        assertFalse(availability.isBlocked(LocalTime.of(9, 45)));
+        assertTrue(availability.isBlocked(LocalTime.of(10, 0)));
+    }
+
+    @Test
+    public void setAvailability_valueBlocked_invalid() {
+        TimeAvailability availability = new TimeAvailability();
+        availability.block(LocalTime.of(12, 0), LocalTime.of(13, 0));
+        TimePicker timePicker = new TimePicker();
+        timePicker.setAvailability(availability);
+
+        timePicker.setValue(LocalTime.of(12, 30));
+        assertTrue(timePicker.isInvalid());
+        timePicker.setValue(LocalTime.of(13, 0));
+        assertFalse(timePicker.isInvalid());
+    }
+
+    @Test
+    public void setAvailability_currentValueRevalidated() {
+        TimeAvailability availability = new TimeAvailability();
+        availability.block(LocalTime.of(12, 0), LocalTime.of(13, 0));
+        TimePicker timePicker = new TimePicker(LocalTime.of(12, 30));
+        assertFalse(timePicker.isInvalid());
+
+        timePicker.setAvailability(availability);
+        assertTrue(timePicker.isInvalid());
+        timePicker.setAvailability(null);
+        assertFalse(timePicker.isInvalid());
+    }
+
+    @Test
+    public void setAvailability_detachedAndUiClosed_listenerRemoved() {
+        TimeAvailability availability = new TimeAvailability();
+        SessionlessUI ui = new SessionlessUI();
+        TimePicker timePicker = new TimePicker();
+        timePicker.setAvailability(availability);
+        ui.add(timePicker);
+
+        // no round trip runs after the detach
+        ui.remove(timePicker);
+        ui.close();
+        availability.block(LocalTime.of(12, 0), LocalTime.of(13, 0));
+        assertEquals(0, ui.accessCount);
+    }
+
+    @Test
+    public void setAvailability_sessionExpired_listenerRemoved() {
+        TimeAvailability availability = new TimeAvailability();
+        SessionlessUI ui = new SessionlessUI();
+        TimePicker timePicker = new TimePicker();
+        timePicker.setAvailability(availability);
+        ui.add(timePicker);
+
+        availability.block(LocalTime.of(12, 0), LocalTime.of(13, 0));
+        availability.block(LocalTime.of(14, 0), LocalTime.of(15, 0));
+        assertEquals(1, ui.accessCount);
+    }
+
+    /**
+     * A UI whose session is gone, counting the attempts to access it.
+     */
+    private static class SessionlessUI extends UI {
+        private int accessCount;
+
+        @Override
+        public Future<Void> access(Command command) {
+            accessCount++;
+            throw new UIDetachedException();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void timeConstraints_invalidStep_throwsException() {
+        TimeConstraints.NONE.withStep(Duration.ofMinutes(7));
+    }
+
+    @Test
+    public void valueChangeMode_defaultEager_canBeChanged() {
+        TimePicker timePicker = new TimePicker();
+        assertEquals(ValueChangeMode.EAGER, timePicker.getValueChangeMode());
+        assertEquals(HasValueChangeMode.DEFAULT_CHANGE_TIMEOUT,
+                timePicker.getValueChangeTimeout());
+
+        timePicker.setValueChangeMode(ValueChangeMode.LAZY);
+        timePicker.setValueChangeTimeout(1000);
+        assertEquals(ValueChangeMode.LAZY, timePicker.getValueChangeMode());
+        assertEquals(1000, timePicker.getValueChangeTimeout());
+    }
+
+    @Test
+    public void valueChangeModeEager_valueChangedEventWithoutTimeout() {
+        SynchronizationTimePicker timePicker = new SynchronizationTimePicker();
+        timePicker.setValueChangeMode(ValueChangeMode.EAGER);
+
+        assertEquals("value-changed", timePicker.synchronizedEvent);
+        Mockito.verifyZeroInteractions(
+                timePicker.synchronizationRegistration);
+    }
+
+    @Test
+    public void valueChangeModeLazy_synchronizationDebounced() {
+        SynchronizationTimePicker timePicker = new SynchronizationTimePicker();
+        timePicker.setValueChangeMode(ValueChangeMode.LAZY);
+        Mockito.verify(timePicker.synchronizationRegistration)
+                .debounce(HasValueChangeMode.DEFAULT_CHANGE_TIMEOUT);
+
+        timePicker.setValueChangeTimeout(1000);
+        assertEquals("value-changed", timePicker.synchronizedEvent);
+        Mockito.verify(timePicker.synchronizationRegistration).debounce(1000);
+    }
+
+    @Test
+    public void valueChangeModeTimeout_synchronizationThrottled() {
+        SynchronizationTimePicker timePicker = new SynchronizationTimePicker();
+        timePicker.setValueChangeTimeout(500);
+        timePicker.setValueChangeMode(ValueChangeMode.TIMEOUT);
+
+        assertEquals("value-changed", timePicker.synchronizedEvent);
+        Mockito.verify(timePicker.synchronizationRegistration).throttle(500);
+    }
+
+    @Test
+    public void valueChangeModeOnBlurAndOnChange_synchronizedOnEvent() {
+        SynchronizationTimePicker timePicker = new SynchronizationTimePicker();
+        timePicker.setValueChangeMode(ValueChangeMode.ON_BLUR);
+        assertEquals("blur", timePicker.synchronizedEvent);
+
+        timePicker.setValueChangeMode(ValueChangeMode.ON_CHANGE);
+        assertEquals("change", timePicker.synchronizedEvent);
+    }
+
+    @Test
+    public void valueChangeModeNull_valueNotSynchronized() {
+        SynchronizationTimePicker timePicker = new SynchronizationTimePicker();
+        timePicker.setValueChangeMode(null);
+
+        assertEquals(null, timePicker.synchronizedEvent);
+        assertEquals(null, timePicker.getValueChangeMode());
+    }
+
+    @Test
+    public void fetchValues_detachedPickers_keepValues() throws Exception {
+        TimePicker first = new TimePicker(LocalTime.of(8, 0));
+        TimePicker second = new TimePicker();
+        first.setValueChangeMode(null);
+
+        Map<TimePicker, LocalTime> values = TimePicker
+                .fetchValues(Arrays.asList(first, second)).get();
+        assertEquals(Arrays.asList(first, second),
+                new ArrayList<>(values.keySet()));
+        assertEquals(LocalTime.of(8, 0), values.get(first));
+        assertEquals(null, values.get(second));
+    }
+
+    @Test
+    public void fetchValues_clientValuesSetAndValidated() throws Exception {
+        UI ui = new UI();
+        VaadinSession session = Mockito.mock(VaadinSession.class);
+        ui.getInternals().setSession(session);
+
+        TimePicker valid = new TimePicker(LocalTime.of(8, 0));
+        TimePicker unparsable = new TimePicker(LocalTime.of(8, 0));
+        TimePicker clientInvalid = new TimePicker();
+        TimePicker removed = new TimePicker(LocalTime.of(7, 0));
+        List<TimePicker> timePickers = Arrays.asList(valid, unparsable,
+                clientInvalid, removed);
+        List<Boolean> fromClient = new ArrayList<>();
+        timePickers.forEach(timePicker -> {
+            timePicker.setValueChangeMode(null);
+            timePicker.addValueChangeListener(
+                    event -> fromClient.add(event.isFromClient()));
+        });
+        ui.add(valid, unparsable, clientInvalid, removed);
+
+        CompletableFuture<Map<TimePicker, LocalTime>> future = TimePicker
+                .fetchValues(timePickers);
+        List<PendingJavaScriptInvocation> invocations = ui.getInternals()
+                .dumpPendingJavaScriptInvocations();
+        PendingJavaScriptInvocation invocation = invocations
+                .get(invocations.size() - 1);
+        JsonArray result = Json.createArray();
+        result.set(0, fetchedValue("10:15", true));
+        result.set(1, fetchedValue("not a time", true));
+        result.set(2, fetchedValue("11:00", false));
+        // removed on the client
+        result.set(3, Json.createNull());
+        invocation.complete(result);
+
+        Map<TimePicker, LocalTime> values = future.get();
+        assertEquals(LocalTime.of(10, 15), values.get(valid));
+        assertFalse(valid.isInvalid());
+        assertEquals(null, values.get(unparsable));
+        assertEquals("not a time",
+                unparsable.getElement().getProperty("value"));
+        assertTrue(unparsable.isInvalid());
+        assertEquals(LocalTime.of(11, 0), values.get(clientInvalid));
+        assertTrue(clientInvalid.isInvalid());
+        assertEquals(LocalTime.of(7, 0), values.get(removed));
+        assertEquals(LocalTime.of(7, 0), removed.getValue());
+        assertFalse(removed.isInvalid());
+        assertEquals(Arrays.asList(true, true, true), fromClient);
+    }
+
+    private static JsonArray fetchedValue(String value, boolean valid) {
+        JsonArray entry = Json.createArray();
+        entry.set(0, value);
+        entry.set(1, valid);
+        return entry;
+    }
+
+    @Test
+    public void globalMetrics_validationFailureRecorded() {
+        List<TimePickerOperation> operations = new ArrayList<>();
+        TimePickerMetrics.setGlobal((operation, ui, timePicker,
+                durationNanos) -> operations.add(operation));
+        try {
+            TimePicker timePicker = new TimePicker();
+            timePicker.setMaxTime(LocalTime.of(12, 0));
+            timePicker.setValue(LocalTime.of(13, 0));
+        } finally {
+            TimePickerMetrics.setGlobal(null);
+        }
+        assertTrue(operations.contains(TimePickerOperation.VALIDATION));
+        assertTrue(
+                operations.contains(TimePickerOperation.VALIDATION_FAILURE));
+    }
+
+    @Test
+    public void notAttached_validValue_noInvalidProperty() {
+        TimePicker timePicker = new TimePicker(LocalTime.of(8, 0));
+        timePicker.setLocale(Locale.GERMANY);
+        timePicker.setValue(LocalTime.of(9, 0));
+
+        assertFalse(timePicker.isInvalid());
+        assertFalse(timePicker.getElement().hasProperty("invalid"));
+    }
+
+    @Test
+    public void millisOfDay_setAndGet() {
+        TimePicker timePicker = new TimePicker();
+        assertEquals(TimePicker.NO_MILLIS_OF_DAY, timePicker.getMillisOfDay());
+        List<Integer> changes = new ArrayList<>();
+        timePicker.addMillisOfDayChangeListener(
+                (oldMillisOfDay, millisOfDay, fromClient) -> changes
+                        .add(millisOfDay));
+
+        timePicker.setMillisOfDay(45_296_789);
+        assertEquals(LocalTime.of(12, 34, 56, 789_000_000),
+                timePicker.getValue());
+        timePicker.setValue(LocalTime.of(12, 34, 56, 789_999_999));
+        assertEquals(45_296_789, timePicker.getMillisOfDay());
+        timePicker.setMillisOfDay(TimePicker.NO_MILLIS_OF_DAY);
+        assertEquals(null, timePicker.getValue());
+        assertEquals(Arrays.asList(45_296_789, TimePicker.NO_MILLIS_OF_DAY),
+                changes);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setMillisOfDay_outOfRange_throwsException() {
+        new TimePicker().setMillisOfDay(86_400_000);
+    }
+
     @Test
     public void clearButtonVisiblePropertyValue() {
         TimePicker timePicker = new TimePicker();
@@ -261,6 +745,39 @@ public class TimePickerTest {
         Assert.assertEquals(value, field.getElement().getPropertyRaw("value"));
     }
 
+    @Test
+    public void supportedAvailableLocales_allHaveLanguage() {
+        assertTrue(TimePicker.getSupportedAvailableLocales()
+                .allMatch(locale -> !locale.getLanguage().isEmpty()));
+        assertTrue(TimePicker.getSupportedAvailableLocales()
+                .anyMatch(Locale.US::equals));
+    }
+
+    @Test
+    public void getSupportedLocale_byLanguageTag() {
+        assertEquals(Optional.of(new Locale("fi", "FI")),
+                TimePicker.getSupportedLocale("fi-FI"));
+        assertEquals(Optional.of(Locale.US),
+                TimePicker.getSupportedLocale("en_us"));
+        assertEquals(Optional.empty(), TimePicker.getSupportedLocale("xx"));
+    }
+
+    @Test
+    public void resolveSupportedLocale_fallsBackToClosestSupported() {
+        assertEquals(Locale.US, TimePicker.resolveSupportedLocale(Locale.US));
+        assertEquals(Locale.US, TimePicker.resolveSupportedLocale(
+                Locale.forLanguageTag("en-US-x-custom")));
+        assertEquals(new Locale("fi", "FI"),
+                TimePicker.resolveSupportedLocale(new Locale("", "FI")));
+        assertEquals(Locale.US,
+                TimePicker.resolveSupportedLocale(new Locale("xx", "YY")));
+
+        TimePicker timePicker = new TimePicker();
+        timePicker.setLocale(
+                TimePicker.resolveSupportedLocale(new Locale("", "DE")));
+        assertEquals("DE", timePicker.getLocale().getCountry());
+    }
+
     public void assertClearButtonPropertyValueEquals(TimePicker timePicker,
             Boolean value) {
         timePicker.setClearButtonVisible(value);